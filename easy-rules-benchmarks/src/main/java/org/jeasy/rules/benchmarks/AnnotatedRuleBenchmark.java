@@ -0,0 +1,146 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.benchmarks;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.core.BasicRule;
+import org.jeasy.rules.core.RuleProxy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the cost of evaluating and executing an annotated rule (through {@link RuleProxy})
+ * with the cost of doing the same with an equivalent {@link BasicRule} subclass.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotatedRuleBenchmark {
+
+    private Facts facts;
+
+    private Rule basicRule;
+
+    private Rule annotatedRule;
+
+    @Setup
+    public void setUp() {
+        facts = new Facts();
+        facts.add("age", 18);
+        basicRule = new AdultBasicRule();
+        annotatedRule = RuleProxy.asRule(new AdultAnnotatedRule());
+    }
+
+    @Benchmark
+    public boolean basicRuleEvaluate() {
+        return basicRule.evaluate(facts);
+    }
+
+    @Benchmark
+    public boolean annotatedRuleEvaluate() {
+        return annotatedRule.evaluate(facts);
+    }
+
+    @Benchmark
+    public void basicRuleExecute() throws Exception {
+        basicRule.execute(facts);
+    }
+
+    @Benchmark
+    public void annotatedRuleExecute() throws Exception {
+        annotatedRule.execute(facts);
+    }
+
+    @Benchmark
+    public int basicRulePriority() {
+        return basicRule.getPriority();
+    }
+
+    @Benchmark
+    public int annotatedRulePriority() {
+        return annotatedRule.getPriority();
+    }
+
+    @Benchmark
+    public int basicRuleCompareTo() {
+        return basicRule.compareTo(annotatedRule);
+    }
+
+    @Benchmark
+    public int annotatedRuleCompareTo() {
+        return annotatedRule.compareTo(basicRule);
+    }
+
+    public static class AdultBasicRule extends BasicRule {
+
+        private int adults;
+
+        public AdultBasicRule() {
+            super("adult rule", "when age >= 18 then count adults", 1);
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return (Integer) facts.get("age") >= 18;
+        }
+
+        @Override
+        public void execute(Facts facts) throws Exception {
+            adults++;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule(name = "adult rule", description = "when age >= 18 then count adults")
+    public static class AdultAnnotatedRule {
+
+        private int adults;
+
+        @Condition
+        public boolean isAdult(@Fact("age") int age) {
+            return age >= 18;
+        }
+
+        @Action
+        public void countAdult() {
+            adults++;
+        }
+
+        @Priority
+        public int getPriority() {
+            return 1;
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Rule delegating to a compiled rule and recording its index when its actions have been performed
+ * successfully, used by the default implementation of {@link RulesEngine#fireAndGetApplied(Rules, Facts)}.
+ *
+ * Recorders keep the order of compiled rules and are equal to the rules they delegate to. Equality is not
+ * symmetric: a rule is usually not equal to its recorder, since rules compare classes or fields in equals.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class AppliedRuleRecorder implements Rule {
+
+    private final Rule rule;
+
+    private final int index;
+
+    private final BitSet applied;
+
+    private AppliedRuleRecorder(final Rule rule, final int index, final BitSet applied) {
+        this.rule = rule;
+        this.index = index;
+        this.applied = applied;
+    }
+
+    /*
+     * Rules recording in the given set the indexes of compiled rules performed successfully.
+     */
+    static Rules record(final CompiledRules rules, final BitSet applied) {
+        Rule[] recorders = new Rule[rules.size()];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new AppliedRuleRecorder(rules.getRule(i), i, applied);
+        }
+        return new Rules(recorders);
+    }
+
+    @Override
+    public String getName() {
+        return rule.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return rule.getDescription();
+    }
+
+    @Override
+    public int getPriority() {
+        return rule.getPriority();
+    }
+
+    @Override
+    public boolean evaluate(Facts facts) {
+        return rule.evaluate(facts);
+    }
+
+    @Override
+    public void execute(Facts facts) throws Exception {
+        rule.execute(facts);
+        synchronized (applied) {
+            applied.set(index);
+        }
+    }
+
+    @Override
+    public Set<String> getFactNames() {
+        return rule.getFactNames();
+    }
+
+    @Override
+    public Set<String> getConditionFactNames() {
+        return rule.getConditionFactNames();
+    }
+
+    @Override
+    public boolean readsAnyFact() {
+        return rule.readsAnyFact();
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return rule.isDeterministic();
+    }
+
+    @Override
+    public int compareTo(Rule otherRule) {
+        if (otherRule instanceof AppliedRuleRecorder) {
+            return Integer.compare(index, ((AppliedRuleRecorder) otherRule).index);
+        }
+        return rule.compareTo(otherRule);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return rule.equals(o instanceof AppliedRuleRecorder ? ((AppliedRuleRecorder) o).rule : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return rule.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return rule.toString();
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Result of a check of compiled rules, see {@link RulesEngine#evaluate(Rules, Facts)}.
+ *
+ * Rules are identified by their index in {@link CompiledRules}: the result holds the set of
+ * evaluated rules and the set of triggered rules as bit sets, without boxing results or hashing
+ * rules. A {@link Map} view is available for code expecting the result of {@link RulesEngine#check(Rules, Facts)}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class CheckResult {
+
+    private final CompiledRules rules;
+
+    private final BitSet evaluated;
+
+    private final BitSet triggered;
+
+    /**
+     * Create a check result. Bit sets are not copied and should not be changed afterwards.
+     *
+     * @param rules checked rules
+     * @param evaluated indexes of evaluated rules
+     * @param triggered indexes of rules evaluated to true, a subset of evaluated rules
+     */
+    public CheckResult(final CompiledRules rules, final BitSet evaluated, final BitSet triggered) {
+        this.rules = rules;
+        this.evaluated = evaluated;
+        this.triggered = triggered;
+    }
+
+    /**
+     * Return the checked rules.
+     *
+     * @return the checked rules
+     */
+    public CompiledRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Return whether the rule at the given index has been evaluated, rules skipped by a listener are not.
+     *
+     * @param index of the rule in {@link #getRules()}
+     * @return true if the rule has been evaluated
+     */
+    public boolean isEvaluated(int index) {
+        return evaluated.get(index);
+    }
+
+    /**
+     * Return whether the rule at the given index has been evaluated to true.
+     *
+     * @param index of the rule in {@link #getRules()}
+     * @return true if the rule has been evaluated to true
+     */
+    public boolean isTriggered(int index) {
+        return triggered.get(index);
+    }
+
+    /**
+     * Return the index of the first triggered rule at or after the given index, to iterate over triggered rules:
+     * <pre>
+     * for (int i = result.nextTriggered(0); i &gt;= 0; i = result.nextTriggered(i + 1)) { ... }
+     * </pre>
+     *
+     * @param fromIndex index to start from
+     * @return the index of the next triggered rule, or -1 if there is none
+     */
+    public int nextTriggered(int fromIndex) {
+        return triggered.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Return the number of triggered rules.
+     *
+     * @return the number of triggered rules
+     */
+    public int triggeredCount() {
+        return triggered.cardinality();
+    }
+
+    /**
+     * Return the triggered rules in their natural order.
+     *
+     * @return the triggered rules
+     */
+    public Iterable<Rule> triggered() {
+        return new Iterable<Rule>() {
+            @Override
+            public Iterator<Rule> iterator() {
+                return new Iterator<Rule>() {
+                    private int next = triggered.nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public Rule next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        Rule rule = rules.getRule(next);
+                        next = triggered.nextSetBit(next + 1);
+                        return rule;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Return an unmodifiable map view of this result, mapping each evaluated rule to its result.
+     *
+     * @return a map view of this result
+     */
+    public Map<Rule, Boolean> asMap() {
+        return new ResultMap();
+    }
+
+    private final class ResultMap extends AbstractMap<Rule, Boolean> {
+
+        @Override
+        public Boolean get(Object key) {
+            int index = rules.indexOf(key);
+            if (index < 0 || !evaluated.get(index)) {
+                return null;
+            }
+            return triggered.get(index);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return evaluated.cardinality();
+        }
+
+        @Override
+        public Set<Entry<Rule, Boolean>> entrySet() {
+            return new AbstractSet<Entry<Rule, Boolean>>() {
+                @Override
+                public Iterator<Entry<Rule, Boolean>> iterator() {
+                    return new Iterator<Entry<Rule, Boolean>>() {
+                        private int next = evaluated.nextSetBit(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Entry<Rule, Boolean> next() {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<Rule, Boolean> entry = new SimpleImmutableEntry<>(rules.getRule(next), triggered.get(next));
+                            next = evaluated.nextSetBit(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return evaluated.cardinality();
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,342 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Immutable set of rules sorted once in their natural order, see {@link Rules#compile()}.
+ *
+ * Rules are kept in an array along with their name and priority, so that the engine
+ * can iterate over them without sorting or allocating on each fire.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class CompiledRules extends Rules {
+
+    private final Rule[] rules;
+
+    private final String[] names;
+
+    private final int[] priorities;
+
+    /*
+     * Names of the facts read by deterministic conditions, null for other rules.
+     */
+    private final String[][] deterministicFactNames;
+
+    /*
+     * Computed lazily, a race may only compute the same (immutable) schema twice.
+     */
+    private FactSchema factSchema;
+
+    /*
+     * Computed lazily like the fact schema, published safely through its final fields.
+     */
+    private FactIndex factIndex;
+
+    /*
+     * Computed lazily like the fact schema, published safely through its final field.
+     */
+    private RuleIndex ruleIndex;
+
+    /*
+     * States derived from the rules by engines, by type, see getDerivedState.
+     */
+    private final ConcurrentMap<Class<?>, Object> derivedStates = new ConcurrentHashMap<>(4);
+
+    CompiledRules(final Collection<Rule> rules) {
+        super(Collections.<Rule>emptySet());
+        this.rules = new TreeSet<>(rules).toArray(new Rule[0]);
+        this.names = new String[this.rules.length];
+        this.priorities = new int[this.rules.length];
+        this.deterministicFactNames = new String[this.rules.length][];
+        for (int i = 0; i < this.rules.length; i++) {
+            names[i] = this.rules[i].getName();
+            priorities[i] = this.rules[i].getPriority();
+            if (this.rules[i].isDeterministic()) {
+                deterministicFactNames[i] = this.rules[i].getConditionFactNames().toArray(new String[0]);
+            }
+        }
+    }
+
+    /**
+     * Return the number of rules.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Return the rule at the given index in the natural order of rules.
+     *
+     * @param index of the rule
+     * @return the rule at the given index
+     */
+    public Rule getRule(int index) {
+        return rules[index];
+    }
+
+    /**
+     * Return the index of the given rule in the natural order of rules. Rules are looked up
+     * in a hash map built on first use, so finding a rule does not depend on the number of rules.
+     *
+     * @param rule to look up
+     * @return the index of the rule, or -1 if it is not one of these rules
+     */
+    public int indexOf(Object rule) {
+        RuleIndex index = ruleIndex;
+        if (index == null) {
+            index = new RuleIndex(rules);
+            ruleIndex = index;
+        }
+        Integer position = index.indexes.get(rule);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Return the name of the rule at the given index, as it was when rules have been compiled.
+     *
+     * @param index of the rule
+     * @return the name of the rule at the given index
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Return the priority of the rule at the given index, as it was when rules have been compiled.
+     *
+     * @param index of the rule
+     * @return the priority of the rule at the given index
+     */
+    public int getPriority(int index) {
+        return priorities[index];
+    }
+
+    /**
+     * Tell whether the condition of the rule at the given index is deterministic,
+     * as it was when rules have been compiled, see {@link Rule#isDeterministic()}.
+     *
+     * @param index of the rule
+     * @return true if the condition of the rule at the given index is deterministic
+     */
+    public boolean isDeterministic(int index) {
+        return deterministicFactNames[index] != null;
+    }
+
+    /**
+     * Resolve the values of the facts the deterministic condition of the rule at the given index
+     * depends on, in the order of {@link Rule#getConditionFactNames()}.
+     *
+     * @param index of a rule with a deterministic condition
+     * @param facts from which values are resolved
+     * @return the values of the facts the condition depends on, or null if one of them is missing
+     * @throws IllegalArgumentException if the condition of the rule is not deterministic
+     */
+    public Object[] resolveDeterministicFacts(int index, Facts facts) {
+        String[] factNames = deterministicFactNames[index];
+        if (factNames == null) {
+            throw new IllegalArgumentException("Condition of rule '" + names[index] + "' is not deterministic");
+        }
+        Object[] values = new Object[factNames.length];
+        for (int i = 0; i < factNames.length; i++) {
+            Object value = facts.get(factNames[i]);
+            if (value == null) {
+                return null;
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Return the indexes of rules which may read the given fact: rules declaring the fact
+     * and rules which may read any fact, see {@link Rule#getFactNames()} and {@link Rule#readsAnyFact()}.
+     *
+     * @param factName name of the fact
+     * @return indexes of rules which may read the fact
+     */
+    public BitSet getRulesReading(String factName) {
+        FactIndex index = factIndex;
+        if (index == null) {
+            index = new FactIndex(rules);
+            factIndex = index;
+        }
+        BitSet readers = (BitSet) index.rulesReadingAnyFact.clone();
+        BitSet declaringRules = index.rulesByFact.get(factName);
+        if (declaringRules != null) {
+            readers.or(declaringRules);
+        }
+        return readers;
+    }
+
+    /**
+     * Return the state of the given type derived from these rules by an engine, computing it on first use.
+     * Engines keep structures built from rules, such as matching networks, along with the rules so that
+     * they are built once for all fires and released with the rules. Getting a computed state does not lock.
+     *
+     * @param type of the state, only one state of each type is kept
+     * @param factory computing the state from these rules, called once
+     * @param <T> type of the state
+     * @return the state of the given type derived from these rules
+     */
+    public <T> T getDerivedState(Class<T> type, Function<? super CompiledRules, ? extends T> factory) {
+        Object state = derivedStates.get(type);
+        if (state == null) {
+            state = derivedStates.computeIfAbsent(type, new Function<Class<?>, Object>() {
+                @Override
+                public Object apply(Class<?> key) {
+                    return factory.apply(CompiledRules.this);
+                }
+            });
+        }
+        return type.cast(state);
+    }
+
+    /**
+     * Compiled rules are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void register(Object rule) {
+        throw new UnsupportedOperationException("Compiled rules can not be modified");
+    }
+
+    /**
+     * Compiled rules are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void unregister(Object rule) {
+        throw new UnsupportedOperationException("Compiled rules can not be modified");
+    }
+
+    /**
+     * Compiled rules are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Compiled rules can not be modified");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    @Override
+    public FactSchema getFactSchema() {
+        FactSchema schema = factSchema;
+        if (schema == null) {
+            schema = super.getFactSchema();
+            factSchema = schema;
+        }
+        return schema;
+    }
+
+    @Override
+    public void sort() {
+        // already sorted
+    }
+
+    @Override
+    public CompiledRules compile() {
+        return this;
+    }
+
+    @Override
+    public Iterator<Rule> iterator() {
+        return new Iterator<Rule>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < rules.length;
+            }
+
+            @Override
+            public Rule next() {
+                if (index >= rules.length) {
+                    throw new NoSuchElementException();
+                }
+                return rules[index++];
+            }
+        };
+    }
+
+    private static final class RuleIndex {
+
+        private final Map<Rule, Integer> indexes;
+
+        RuleIndex(final Rule[] rules) {
+            indexes = new HashMap<>(rules.length * 4 / 3 + 1);
+            for (int i = 0; i < rules.length; i++) {
+                if (!indexes.containsKey(rules[i])) {
+                    indexes.put(rules[i], i);
+                }
+            }
+        }
+    }
+
+    private static final class FactIndex {
+
+        private final Map<String, BitSet> rulesByFact = new HashMap<>();
+
+        private final BitSet rulesReadingAnyFact = new BitSet();
+
+        FactIndex(final Rule[] rules) {
+            for (int i = 0; i < rules.length; i++) {
+                if (rules[i].readsAnyFact()) {
+                    rulesReadingAnyFact.set(i);
+                }
+                for (String factName : rules[i].getFactNames()) {
+                    BitSet declaringRules = rulesByFact.get(factName);
+                    if (declaringRules == null) {
+                        declaringRules = new BitSet(rules.length);
+                        rulesByFact.put(factName, declaringRules);
+                    }
+                    declaringRules.set(i);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable set of fact names where each name is assigned an integer slot.
+ *
+ * {@link Facts} created with a schema store facts declared in the schema in an array indexed
+ * by slot. Rules bind their fact parameters to slots once per schema and then lookup facts by index
+ * instead of hashing fact names. Facts not declared in the schema are stored by name.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class FactSchema {
+
+    /**
+     * Slot of fact names not declared in a schema.
+     */
+    public static final int NO_SLOT = -1;
+
+    private final String[] names;
+
+    private final Map<String, Integer> slots;
+
+    private FactSchema(final Collection<String> names) {
+        this.names = names.toArray(new String[names.size()]);
+        this.slots = new HashMap<>();
+        for (int slot = 0; slot < this.names.length; slot++) {
+            slots.put(this.names[slot], slot);
+        }
+    }
+
+    /**
+     * Create a schema assigning a slot to each fact name, in the given order.
+     *
+     * @param names fact names
+     * @return a new schema
+     */
+    public static FactSchema of(final String... names) {
+        return of(Arrays.asList(names));
+    }
+
+    /**
+     * Create a schema assigning a slot to each fact name, in iteration order.
+     *
+     * @param names fact names
+     * @return a new schema
+     */
+    public static FactSchema of(final Collection<String> names) {
+        return new FactSchema(new LinkedHashSet<>(names));
+    }
+
+    /**
+     * Get the slot of a fact name.
+     *
+     * @param name fact name
+     * @return the slot of the fact or {@link #NO_SLOT} if the fact is not declared in this schema
+     */
+    public int getSlot(final String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : NO_SLOT;
+    }
+
+    /**
+     * Get the fact name assigned to a slot.
+     *
+     * @param slot of the fact
+     * @return the fact name
+     */
+    public String getName(final int slot) {
+        return names[slot];
+    }
+
+    /**
+     * Return the names declared in this schema in slot order.
+     *
+     * @return the declared fact names
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Return the number of slots of this schema.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        return "FactSchema " + Arrays.toString(names);
+    }
+}
@@ -27,31 +27,356 @@ import java.util.*;
 
 import static java.lang.String.format;
 
+/**
+ * Set of named facts given as input to the rules engine.
+ *
+ * Facts created with a {@link FactSchema} keep facts declared in the schema in an array
+ * indexed by slot, see {@link #get(int)}.
+ *
+ * Numeric and boolean facts can be added and read without boxing with the primitive accessors
+ * ({@link #addInt(String, int)}, {@link #getInt(String)}, etc). Such facts are boxed only when read
+ * as objects, and updating them reuses their storage.
+ *
+ * Names of facts added, updated or removed can be recorded with {@link #trackChanges(Set)}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
 public class Facts implements Iterable<Map.Entry<String, Object>> {
 
     private Map<String, Object> facts = new HashMap<>();
 
+    private final FactSchema schema;
+
+    private final Object[] slots;
+
+    /*
+     * Sets in which names of changed facts are recorded, null when changes are not tracked.
+     */
+    private List<Set<String>> changeSets;
+
+    /**
+     * Create a new {@link Facts} storing facts by name.
+     */
+    public Facts() {
+        this.schema = null;
+        this.slots = null;
+    }
+
+    /**
+     * Create a new {@link Facts} storing facts declared in the schema by slot.
+     *
+     * @param schema of facts
+     */
+    public Facts(final FactSchema schema) {
+        this.schema = schema;
+        this.slots = new Object[schema.size()];
+    }
+
     public void add(String name, Object fact) {
-        facts.put(name, fact);
+        int slot = getSlot(name);
+        if (slot != FactSchema.NO_SLOT) {
+            slots[slot] = fact;
+        } else {
+            facts.put(name, fact);
+        }
+        recordChange(name);
+    }
+
+    public void addInt(String name, int fact) {
+        addPrimitive(name, PrimitiveFact.INT, fact);
+    }
+
+    public void addLong(String name, long fact) {
+        addPrimitive(name, PrimitiveFact.LONG, fact);
+    }
+
+    public void addDouble(String name, double fact) {
+        addPrimitive(name, PrimitiveFact.DOUBLE, Double.doubleToRawLongBits(fact));
+    }
+
+    public void addBoolean(String name, boolean fact) {
+        addPrimitive(name, PrimitiveFact.BOOLEAN, fact ? 1 : 0);
     }
 
     public void remove(String name) {
-        facts.remove(name);
+        int slot = getSlot(name);
+        if (slot != FactSchema.NO_SLOT) {
+            slots[slot] = null;
+        } else {
+            facts.remove(name);
+        }
+        recordChange(name);
     }
 
     public Object get(String name) {
+        return box(getValue(name));
+    }
+
+    /**
+     * Get a fact by its slot in the schema of these facts.
+     *
+     * @param slot of the fact in {@link #getSchema()}
+     * @return the fact or null if absent
+     */
+    public Object get(int slot) {
+        return box(slots[slot]);
+    }
+
+    /**
+     * Get a numeric fact as an int.
+     *
+     * @param name of the fact
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     * @throws ArithmeticException if the fact can not be converted to an int without loss
+     */
+    public int getInt(String name) {
+        Object value = getValue(name);
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).intValue();
+        }
+        return PrimitiveFact.toIntExact((Number) checkPresent(name, value));
+    }
+
+    /**
+     * Get a numeric fact as an int by its slot in the schema of these facts.
+     *
+     * @param slot of the fact in {@link #getSchema()}
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     * @throws ArithmeticException if the fact can not be converted to an int without loss
+     */
+    public int getInt(int slot) {
+        Object value = slots[slot];
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).intValue();
+        }
+        return PrimitiveFact.toIntExact((Number) checkPresent(schema.getName(slot), value));
+    }
+
+    /**
+     * Get a numeric fact as a long.
+     *
+     * @param name of the fact
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     * @throws ArithmeticException if the fact can not be converted to a long without loss
+     */
+    public long getLong(String name) {
+        Object value = getValue(name);
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).longValue();
+        }
+        return PrimitiveFact.toLongExact((Number) checkPresent(name, value));
+    }
+
+    /**
+     * Get a numeric fact as a long by its slot in the schema of these facts.
+     *
+     * @param slot of the fact in {@link #getSchema()}
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     * @throws ArithmeticException if the fact can not be converted to a long without loss
+     */
+    public long getLong(int slot) {
+        Object value = slots[slot];
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).longValue();
+        }
+        return PrimitiveFact.toLongExact((Number) checkPresent(schema.getName(slot), value));
+    }
+
+    /**
+     * Get a numeric fact as a double.
+     *
+     * @param name of the fact
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     */
+    public double getDouble(String name) {
+        Object value = getValue(name);
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).doubleValue();
+        }
+        return ((Number) checkPresent(name, value)).doubleValue();
+    }
+
+    /**
+     * Get a numeric fact as a double by its slot in the schema of these facts.
+     *
+     * @param slot of the fact in {@link #getSchema()}
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     */
+    public double getDouble(int slot) {
+        Object value = slots[slot];
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).doubleValue();
+        }
+        return ((Number) checkPresent(schema.getName(slot), value)).doubleValue();
+    }
+
+    /**
+     * Get a boolean fact.
+     *
+     * @param name of the fact
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     */
+    public boolean getBoolean(String name) {
+        Object value = getValue(name);
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).booleanValue();
+        }
+        return (Boolean) checkPresent(name, value);
+    }
+
+    /**
+     * Get a boolean fact by its slot in the schema of these facts.
+     *
+     * @param slot of the fact in {@link #getSchema()}
+     * @return the fact value
+     * @throws IllegalArgumentException if there is no such fact
+     */
+    public boolean getBoolean(int slot) {
+        Object value = slots[slot];
+        if (value instanceof PrimitiveFact) {
+            return ((PrimitiveFact) value).booleanValue();
+        }
+        return (Boolean) checkPresent(schema.getName(slot), value);
+    }
+
+    /**
+     * Return the schema of these facts.
+     *
+     * @return the schema of these facts or null if facts are stored by name only
+     */
+    public FactSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Record the names of facts added, updated or removed from now on in the given set, until
+     * {@link #untrackChanges(Set)} is called. Facts mutated in place are not tracked: they should
+     * be added again for the change to be recorded.
+     *
+     * @param changes set in which names of changed facts are recorded
+     */
+    public void trackChanges(Set<String> changes) {
+        if (changeSets == null) {
+            changeSets = new ArrayList<>(2);
+        }
+        changeSets.add(changes);
+    }
+
+    /**
+     * Stop recording changes in the given set.
+     *
+     * @param changes set given to {@link #trackChanges(Set)}
+     */
+    public void untrackChanges(Set<String> changes) {
+        if (changeSets == null) {
+            return;
+        }
+        for (Iterator<Set<String>> iterator = changeSets.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == changes) {
+                iterator.remove();
+                break;
+            }
+        }
+        if (changeSets.isEmpty()) {
+            changeSets = null;
+        }
+    }
+
+    private void recordChange(String name) {
+        if (changeSets != null) {
+            for (Set<String> changes : changeSets) {
+                changes.add(name);
+            }
+        }
+    }
+
+    private int getSlot(String name) {
+        return schema != null ? schema.getSlot(name) : FactSchema.NO_SLOT;
+    }
+
+    private Object getValue(String name) {
+        int slot = getSlot(name);
+        if (slot != FactSchema.NO_SLOT) {
+            return slots[slot];
+        }
         return facts.get(name);
     }
 
+    private void addPrimitive(String name, byte type, long value) {
+        Object current = getValue(name);
+        if (current instanceof PrimitiveFact) {
+            ((PrimitiveFact) current).set(type, value);
+            recordChange(name);
+        } else {
+            add(name, new PrimitiveFact(type, value));
+        }
+    }
+
+    private static Object box(Object value) {
+        return value instanceof PrimitiveFact ? ((PrimitiveFact) value).box() : value;
+    }
+
+    private static Object checkPresent(String name, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException(format("No fact named %s found in known facts", name));
+        }
+        return value;
+    }
+
     @Override
     public Iterator<Map.Entry<String, Object>> iterator() {
-        return facts.entrySet().iterator();
+        return new FactIterator();
+    }
+
+    /*
+     * Iterate over facts stored in slots, then over facts stored by name, without copying them.
+     */
+    private final class FactIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final Iterator<Map.Entry<String, Object>> namedFacts = facts.entrySet().iterator();
+
+        private int nextSlot = nextSlot(0);
+
+        private int nextSlot(int from) {
+            if (slots == null) {
+                return -1;
+            }
+            for (int slot = from; slot < slots.length; slot++) {
+                if (slots[slot] != null) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot >= 0 || namedFacts.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (nextSlot >= 0) {
+                int slot = nextSlot;
+                nextSlot = nextSlot(slot + 1);
+                return new AbstractMap.SimpleImmutableEntry<>(schema.getName(slot), box(slots[slot]));
+            }
+            Map.Entry<String, Object> fact = namedFacts.next();
+            return new AbstractMap.SimpleImmutableEntry<>(fact.getKey(), box(fact.getValue()));
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder("Facts {").append("\n");
-        for (Map.Entry<String, Object> fact : facts.entrySet()) {
+        for (Map.Entry<String, Object> fact : this) {
             stringBuilder.append(format("   Fact { %s : %s }", fact.getKey(), fact.getValue().toString()));
             stringBuilder.append("\n");
         }
@@ -0,0 +1,168 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Mutable holder of a primitive fact, updated in place when the fact changes.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class PrimitiveFact {
+
+    static final byte INT = 0;
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte BOOLEAN = 3;
+
+    private byte type;
+
+    private long value;
+
+    PrimitiveFact(final byte type, final long value) {
+        set(type, value);
+    }
+
+    void set(final byte type, final long value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    int intValue() {
+        switch (type) {
+            case LONG:
+                return Math.toIntExact(value);
+            case DOUBLE:
+                return toIntExact(Double.longBitsToDouble(value));
+            case BOOLEAN:
+                throw new ClassCastException("Boolean fact can not be converted to int");
+            default:
+                return (int) value;
+        }
+    }
+
+    long longValue() {
+        switch (type) {
+            case DOUBLE:
+                return toLongExact(Double.longBitsToDouble(value));
+            case BOOLEAN:
+                throw new ClassCastException("Boolean fact can not be converted to long");
+            default:
+                return value;
+        }
+    }
+
+    double doubleValue() {
+        switch (type) {
+            case DOUBLE:
+                return Double.longBitsToDouble(value);
+            case BOOLEAN:
+                throw new ClassCastException("Boolean fact can not be converted to double");
+            default:
+                return value;
+        }
+    }
+
+    boolean booleanValue() {
+        if (type != BOOLEAN) {
+            throw new ClassCastException("Numeric fact can not be converted to boolean");
+        }
+        return value != 0;
+    }
+
+    Object box() {
+        switch (type) {
+            case INT:
+                return (int) value;
+            case LONG:
+                return value;
+            case DOUBLE:
+                return Double.longBitsToDouble(value);
+            default:
+                return value != 0;
+        }
+    }
+
+    /*
+     * Convert a boxed number to an int, throwing an ArithmeticException if information would be lost.
+     */
+    static int toIntExact(final Number number) {
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.intValue();
+        }
+        if (number instanceof Double || number instanceof Float) {
+            return toIntExact(number.doubleValue());
+        }
+        return Math.toIntExact(toLongExact(number));
+    }
+
+    /*
+     * Convert a boxed number to a long, throwing an ArithmeticException if information would be lost.
+     */
+    static long toLongExact(final Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.longValue();
+        }
+        if (number instanceof Double || number instanceof Float) {
+            return toLongExact(number.doubleValue());
+        }
+        if (number instanceof BigInteger) {
+            return ((BigInteger) number).longValueExact();
+        }
+        if (number instanceof BigDecimal) {
+            return ((BigDecimal) number).longValueExact();
+        }
+        long value = number.longValue();
+        if (number.doubleValue() != value) {
+            throw new ArithmeticException(format("Fact %s can not be converted to long without loss", number));
+        }
+        return value;
+    }
+
+    private static int toIntExact(final double value) {
+        int intValue = (int) value;
+        if (intValue != value) {
+            throw new ArithmeticException(format("Fact %s can not be converted to int without loss", value));
+        }
+        return intValue;
+    }
+
+    private static long toLongExact(final double value) {
+        long longValue = (long) value;
+        // 2^63 is converted to Long.MAX_VALUE, which is converted back to 2^63
+        if (longValue != value || value >= 0x1p63) {
+            throw new ArithmeticException(format("Fact %s can not be converted to long without loss", value));
+        }
+        return longValue;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(box());
+    }
+}
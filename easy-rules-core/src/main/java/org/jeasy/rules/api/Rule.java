@@ -23,6 +23,9 @@
  */
 package org.jeasy.rules.api;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Abstraction for a rule that can be fired by the rules engine.
  *
@@ -77,4 +80,38 @@ public interface Rule extends Comparable<Rule> {
      */
     void execute(Facts facts) throws Exception;
 
+    /**
+     * Getter for the names of the facts declared by the rule.
+     * @return the names of facts declared by the rule, empty by default
+     */
+    default Set<String> getFactNames() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Getter for the names of the facts read by the rule's condition.
+     * @return the names of facts read by the rule's condition, {@link #getFactNames()} by default
+     */
+    default Set<String> getConditionFactNames() {
+        return getFactNames();
+    }
+
+    /**
+     * Tell whether the rule's condition may read facts it does not declare, for example through
+     * the {@link Facts} given to an annotated condition method.
+     * @return true if the rule's condition may read any fact, by default if the rule declares no fact
+     */
+    default boolean readsAnyFact() {
+        return getFactNames().isEmpty();
+    }
+
+    /**
+     * Tell whether the rule's condition is deterministic: its result depends only on the values
+     * of the facts named by {@link #getConditionFactNames()}, so it may be cached by these values.
+     * @return true if the rule's condition is deterministic, false by default
+     */
+    default boolean isDeterministic() {
+        return false;
+    }
+
 }
@@ -27,6 +27,7 @@ import org.jeasy.rules.core.RuleProxy;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -69,7 +70,35 @@ public class Rules implements Iterable<Rule> {
         return rules.iterator();
     }
 
+    /**
+     * Create a schema assigning a slot to each fact declared by registered rules.
+     *
+     * @return a schema of facts declared by registered rules
+     * @see Rule#getFactNames()
+     */
+    public FactSchema getFactSchema() {
+        Set<String> factNames = new LinkedHashSet<>();
+        for (Rule rule : this) {
+            factNames.addAll(rule.getFactNames());
+        }
+        return FactSchema.of(factNames);
+    }
+
     public void sort() {
         rules = new TreeSet<>(rules);
     }
+
+    /**
+     * Create an immutable copy of these rules, sorted once in their natural order.
+     * Rules registered afterwards are not part of the copy.
+     *
+     * The copy is read-only although it is a {@link Rules}: {@link #register(Object)}, {@link #unregister(Object)},
+     * {@link #clear()} and removing rules through its iterator throw an {@link UnsupportedOperationException},
+     * so code changing the rules it is given should not be given compiled rules.
+     *
+     * @return compiled rules
+     */
+    public CompiledRules compile() {
+        return new CompiledRules(rules);
+    }
 }
@@ -23,8 +23,12 @@
  */
 package org.jeasy.rules.api;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.jeasy.rules.core.RulesEngineParameters;
 
@@ -33,7 +37,7 @@ import org.jeasy.rules.core.RulesEngineParameters;
  *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
-public interface RulesEngine {
+public interface RulesEngine extends AutoCloseable {
 
     /**
      * Default engine name.
@@ -69,4 +73,124 @@ public interface RulesEngine {
      * @return a map with the result of evaluation of each rule
      */
     Map<Rule, Boolean> check(Rules rules, Facts facts);
+
+    /**
+     * Fire rules on given facts, returning the rules that have been performed successfully.
+     * The default implementation calls {@link #fire(Rules, Facts)} with rules recording the rules
+     * performed successfully: listeners are notified with rules delegating to the given rules. A notified rule is
+     * equal to the given rule, but the given rule is usually not equal to the notified one, so listeners keeping
+     * notified rules, for example as keys of a map, can not look them up with the given rules.
+     *
+     * @param rules to fire
+     * @param facts to fire rules on
+     * @return the indexes in {@link Rules#compile()} of rules that have been performed successfully
+     */
+    default BitSet fireAndGetApplied(Rules rules, Facts facts) {
+        CompiledRules compiledRules = rules.compile();
+        BitSet applied = new BitSet(compiledRules.size());
+        fire(AppliedRuleRecorder.record(compiledRules, applied), facts);
+        return applied;
+    }
+
+    /**
+     * Check rules without firing them, returning a compact result indexed by rule in {@link Rules#compile()}.
+     * The default implementation builds the result from {@link #check(Rules, Facts)}.
+     *
+     * @param rules to check
+     * @param facts to check rules on
+     * @return the evaluated and triggered rules
+     */
+    default CheckResult evaluate(Rules rules, Facts facts) {
+        CompiledRules compiledRules = rules.compile();
+        Map<Rule, Boolean> results = check(compiledRules, facts);
+        BitSet evaluated = new BitSet(compiledRules.size());
+        BitSet triggered = new BitSet(compiledRules.size());
+        for (int i = 0; i < compiledRules.size(); i++) {
+            Boolean result = results.get(compiledRules.getRule(i));
+            if (result != null) {
+                evaluated.set(i);
+                if (result) {
+                    triggered.set(i);
+                }
+            }
+        }
+        return new CheckResult(compiledRules, evaluated, triggered);
+    }
+
+    /**
+     * Fire rules on given facts asynchronously.
+     * The default implementation calls {@link #fire(Rules, Facts)} in the common fork join pool.
+     *
+     * @param rules to fire
+     * @param facts to fire rules on
+     * @return a future completed when rules have been fired, or exceptionally if the fire failed
+     */
+    default CompletableFuture<Void> fireAsync(final Rules rules, final Facts facts) {
+        return CompletableFuture.runAsync(new Runnable() {
+            @Override
+            public void run() {
+                fire(rules, facts);
+            }
+        });
+    }
+
+    /**
+     * Check rules without firing them asynchronously.
+     * The default implementation calls {@link #check(Rules, Facts)} in the common fork join pool.
+     *
+     * @param rules to check
+     * @param facts to check rules on
+     * @return a future of the result of evaluation of each rule
+     */
+    default CompletableFuture<Map<Rule, Boolean>> checkAsync(final Rules rules, final Facts facts) {
+        return CompletableFuture.supplyAsync(new Supplier<Map<Rule, Boolean>>() {
+            @Override
+            public Map<Rule, Boolean> get() {
+                return check(rules, facts);
+            }
+        });
+    }
+
+    /**
+     * Fire rules on each facts of a batch, preparing rules once for the whole batch.
+     * The default implementation calls {@link #fireAndGetApplied(Rules, Facts)} for each facts.
+     *
+     * @param rules to fire
+     * @param facts batch of facts
+     * @return for each facts of the batch, in order, the indexes in {@link Rules#compile()}
+     * of rules that have been performed successfully
+     */
+    default List<BitSet> fireAll(Rules rules, Iterable<Facts> facts) {
+        CompiledRules compiledRules = rules.compile();
+        List<BitSet> outcomes = new ArrayList<>();
+        for (Facts record : facts) {
+            outcomes.add(fireAndGetApplied(compiledRules, record));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Check rules without firing them on each facts of a batch, preparing rules once for the whole batch.
+     * The default implementation calls {@link #check(Rules, Facts)} for each facts.
+     *
+     * @param rules to check
+     * @param facts batch of facts
+     * @return for each facts of the batch, in order, a map with the result of evaluation of each rule
+     */
+    default List<Map<Rule, Boolean>> checkAll(Rules rules, Iterable<Facts> facts) {
+        CompiledRules compiledRules = rules.compile();
+        List<Map<Rule, Boolean>> results = new ArrayList<>();
+        for (Facts record : facts) {
+            results.add(check(compiledRules, record));
+        }
+        return results;
+    }
+
+    /**
+     * Release the resources held by the engine, such as threads notifying listeners asynchronously.
+     * The engine should not be used once closed. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,655 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+/**
+ * Base class of {@link RulesEngine} implementations, holding the parameters, listeners and executors
+ * of an engine along with the fire, check, batch and asynchronous entry points common to engines.
+ * Subclasses define how compiled rules are applied on facts.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+abstract class AbstractRulesEngine implements RulesEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(RulesEngine.class.getName());
+
+    private static final FlightRecorderEvents EVENTS = FlightRecorderEvents.INSTANCE;
+
+    /**
+     * The engine parameters, replaced as a whole when tuned at runtime.
+     */
+    volatile RulesEngineParameters parameters;
+
+    /**
+     * The registered rule listeners.
+     */
+    final List<RuleListener> ruleListeners;
+
+    /**
+     * The dispatcher of rule events to the registered rule listeners.
+     */
+    private final ListenerDispatcher listenerDispatcher;
+
+    /**
+     * The executor of condition evaluations in parallel mode.
+     */
+    final Executor evaluationExecutor;
+
+    /**
+     * The executor of asynchronous fires and checks.
+     */
+    private final Executor asyncExecutor;
+
+    /**
+     * The metrics recorded by the engine, null if metrics are not recorded.
+     */
+    final EngineMetrics metrics;
+
+    /**
+     * The cache of deterministic conditions, null if conditions are not cached.
+     */
+    final ConditionCache conditionCache;
+
+    /**
+     * The logger of the engine, silent in silent mode.
+     */
+    final EngineLogger logger;
+
+    /**
+     * The MBean of the engine, null if the engine is not registered in the MBean server.
+     */
+    private volatile RulesEngineMonitor monitor;
+
+    AbstractRulesEngine() {
+        this.parameters = new RulesEngineParameters();
+        this.ruleListeners = Collections.emptyList();
+        this.listenerDispatcher = ListenerDispatcher.compile(this.ruleListeners);
+        this.evaluationExecutor = ForkJoinPool.commonPool();
+        this.asyncExecutor = Utils.defaultAsyncExecutor();
+        this.metrics = null;
+        this.conditionCache = null;
+        this.logger = new EngineLogger(LOGGER, getClass(), false);
+    }
+
+    AbstractRulesEngine(final RulesEngineParameters parameters, final List<RuleListener> ruleListeners,
+                        final Executor evaluationExecutor, final Executor asyncExecutor, final EngineMetrics metrics,
+                        final ConditionCache conditionCache) {
+        this.parameters = new RulesEngineParameters(parameters);
+        this.ruleListeners = Collections.unmodifiableList(new ArrayList<>(ruleListeners));
+        this.listenerDispatcher = ListenerDispatcher.compile(this.ruleListeners);
+        this.evaluationExecutor = evaluationExecutor;
+        this.asyncExecutor = asyncExecutor;
+        this.metrics = metrics;
+        this.conditionCache = conditionCache;
+        this.logger = new EngineLogger(LOGGER, getClass(), parameters.isSilentMode());
+    }
+
+    /**
+     * Return a copy of the engine parameters, changing it has no effect on the engine.
+     *
+     * @return a copy of the engine parameters
+     */
+    @Override
+    public RulesEngineParameters getParameters() {
+        return new RulesEngineParameters(parameters);
+    }
+
+    /*
+     * Replace the engine parameters at runtime, see RulesEngineMonitor. Fires in progress may see
+     * the new parameters from the next rule on.
+     */
+    void setParameters(RulesEngineParameters parameters) {
+        this.parameters = new RulesEngineParameters(parameters);
+    }
+
+    /*
+     * Set the MBean registered for the engine, unregistered when the engine is closed.
+     */
+    void setMonitor(RulesEngineMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Return the rule listeners of the engine.
+     *
+     * @return an unmodifiable list of rule listeners
+     */
+    @Override
+    public List<RuleListener> getRuleListeners() {
+        return ruleListeners;
+    }
+
+    /**
+     * Unregister the MBean of the engine, see {@link RulesEngineMonitor}, and close the asynchronous
+     * listeners registered on the engine, delivering their pending events, see {@link AsyncRuleListener#close()}.
+     */
+    @Override
+    public void close() {
+        RulesEngineMonitor registeredMonitor = monitor;
+        if (registeredMonitor != null) {
+            monitor = null;
+            registeredMonitor.unregister();
+        }
+        for (RuleListener ruleListener : ruleListeners) {
+            if (ruleListener instanceof AsyncRuleListener) {
+                ((AsyncRuleListener) ruleListener).close();
+            }
+        }
+    }
+
+    @Override
+    public void fire(Rules rules, Facts facts) {
+        if (rules.isEmpty()) {
+            logger.warning("No rules registered! Nothing to apply");
+            return;
+        }
+        CompiledRules compiledRules = rules.compile();
+        logEngineParameters();
+        log(compiledRules);
+        log(facts);
+        applyAndRecord(compiledRules, facts, parameters.isParallelEvaluation(), null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Unlike {@link #fire(Rules, Facts)}, nothing but warnings is logged, so that rules may be fired
+     * on each facts of a stream without logging parameters and rules each time.
+     */
+    @Override
+    public BitSet fireAndGetApplied(Rules rules, Facts facts) {
+        CompiledRules compiledRules = rules.compile();
+        BitSet applied = new BitSet(compiledRules.size());
+        if (compiledRules.isEmpty()) {
+            logger.warning("No rules registered! Nothing to apply");
+        } else {
+            applyAndRecord(compiledRules, facts, parameters.isParallelEvaluation(), applied);
+        }
+        return applied;
+    }
+
+    @Override
+    public Map<Rule, Boolean> check(Rules rules, Facts facts) {
+        logger.info("Checking rules");
+        return doCheck(rules.compile(), facts);
+    }
+
+    @Override
+    public CheckResult evaluate(Rules rules, Facts facts) {
+        logger.info("Checking rules");
+        CompiledRules compiledRules = rules.compile();
+        BitSet evaluated = new BitSet(compiledRules.size());
+        BitSet triggered = new BitSet(compiledRules.size());
+        for (int i = 0; i < compiledRules.size(); i++) {
+            Rule rule = compiledRules.getRule(i);
+            if (shouldBeEvaluated(rule, facts)) {
+                evaluated.set(i);
+                if (evaluate(compiledRules, i, facts)) {
+                    triggered.set(i);
+                }
+            }
+        }
+        return new CheckResult(compiledRules, evaluated, triggered);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Rules are fired on the async executor of the engine.
+     */
+    @Override
+    public CompletableFuture<Void> fireAsync(final Rules rules, final Facts facts) {
+        return CompletableFuture.runAsync(new Runnable() {
+            @Override
+            public void run() {
+                fire(rules, facts);
+            }
+        }, asyncExecutor);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Rules are checked on the async executor of the engine.
+     */
+    @Override
+    public CompletableFuture<Map<Rule, Boolean>> checkAsync(final Rules rules, final Facts facts) {
+        return CompletableFuture.supplyAsync(new Supplier<Map<Rule, Boolean>>() {
+            @Override
+            public Map<Rule, Boolean> get() {
+                return check(rules, facts);
+            }
+        }, asyncExecutor);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Rules are compiled and logged once for the whole batch, facts are not logged.
+     * When parallel batches are enabled, the batch is split in chunks fired concurrently
+     * on the evaluation executor, and conditions of each record are evaluated sequentially.
+     */
+    @Override
+    public List<BitSet> fireAll(Rules rules, Iterable<Facts> facts) {
+        final List<Facts> records = toList(facts);
+        final BitSet[] outcomes = new BitSet[records.size()];
+        if (rules.isEmpty()) {
+            logger.warning("No rules registered! Nothing to apply");
+        } else {
+            final CompiledRules compiledRules = rules.compile();
+            logEngineParameters();
+            log(compiledRules);
+            final boolean parallelEvaluation = parameters.isParallelEvaluation() && !parameters.isParallelBatches();
+            process(records.size(), new IntConsumer() {
+                @Override
+                public void accept(int record) {
+                    outcomes[record] = new BitSet(compiledRules.size());
+                    applyAndRecord(compiledRules, records.get(record), parallelEvaluation, outcomes[record]);
+                }
+            });
+        }
+        for (int record = 0; record < outcomes.length; record++) {
+            if (outcomes[record] == null) {
+                outcomes[record] = new BitSet();
+            }
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Rules are compiled once for the whole batch. When parallel batches are enabled,
+     * the batch is split in chunks checked concurrently on the evaluation executor.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Map<Rule, Boolean>> checkAll(Rules rules, Iterable<Facts> facts) {
+        logger.info("Checking rules");
+        final List<Facts> records = toList(facts);
+        final Map<Rule, Boolean>[] results = new Map[records.size()];
+        final CompiledRules compiledRules = rules.compile();
+        process(records.size(), new IntConsumer() {
+            @Override
+            public void accept(int record) {
+                results[record] = doCheck(compiledRules, records.get(record));
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private Map<Rule, Boolean> doCheck(CompiledRules rules, Facts facts) {
+        Map<Rule, Boolean> result = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.getRule(i);
+            if (shouldBeEvaluated(rule, facts)) {
+                result.put(rule, evaluate(rules, i, facts));
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Process each record of a batch, in chunks processed concurrently when parallel batches are enabled.
+     */
+    private void process(final int records, final IntConsumer processor) {
+        int chunks = parameters.isParallelBatches() ? Math.min(records, Runtime.getRuntime().availableProcessors()) : 1;
+        if (chunks <= 1) {
+            for (int record = 0; record < records; record++) {
+                processor.accept(record);
+            }
+            return;
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int from = (int) ((long) chunk * records / chunks);
+            final int to = (int) ((long) (chunk + 1) * records / chunks);
+            futures[chunk] = CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    for (int record = from; record < to; record++) {
+                        processor.accept(record);
+                    }
+                }
+            }, evaluationExecutor);
+        }
+        join(CompletableFuture.allOf(futures));
+    }
+
+    private static List<Facts> toList(Iterable<Facts> facts) {
+        if (facts instanceof List) {
+            return (List<Facts>) facts;
+        }
+        List<Facts> records = new ArrayList<>();
+        for (Facts record : facts) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /*
+     * Wait for an asynchronous task, an exception thrown by the task is rethrown as is.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    void triggerListenersOnFailure(final Rule rule, final Exception exception, Facts facts) {
+        listenerDispatcher.onFailure(rule, exception, facts);
+    }
+
+    void triggerListenersOnSuccess(final Rule rule, Facts facts) {
+        listenerDispatcher.onSuccess(rule, facts);
+    }
+
+    void triggerListenersBeforeExecute(final Rule rule, Facts facts) {
+        listenerDispatcher.beforeExecute(rule, facts);
+    }
+
+    boolean triggerListenersBeforeEvaluate(Rule rule, Facts facts) {
+        return listenerDispatcher.beforeEvaluate(rule, facts);
+    }
+
+    void triggerListenersAfterEvaluate(Rule rule, boolean evaluationResult) {
+        listenerDispatcher.afterEvaluate(rule, evaluationResult);
+    }
+
+    boolean shouldBeEvaluated(Rule rule, Facts facts) {
+        if (triggerListenersBeforeEvaluate(rule, facts)) {
+            return true;
+        }
+        if (metrics != null) {
+            metrics.forRule(rule.getName()).recordSkip();
+        }
+        return false;
+    }
+
+    /*
+     * Evaluate the condition of a rule, recording its latency if metrics are enabled
+     * and emitting an evaluation event, even if the condition throws, if Flight Recorder events are enabled.
+     */
+    boolean evaluate(CompiledRules rules, int index, Facts facts) {
+        boolean emitted = EVENTS.isEvaluationEnabled();
+        if (metrics == null && !emitted) {
+            return evaluateCondition(rules, index, facts);
+        }
+        Object event = emitted ? EVENTS.beginEvaluation() : null;
+        long start = metrics != null ? System.nanoTime() : 0;
+        boolean evaluationResult;
+        try {
+            evaluationResult = evaluateCondition(rules, index, facts);
+        } catch (RuntimeException | Error failure) {
+            if (event != null) {
+                EVENTS.commitEvaluation(event, parameters.getName(), rules.getName(index), rules.getPriority(index), false, failure);
+            }
+            throw failure;
+        }
+        if (metrics != null) {
+            metrics.forRule(rules.getName(index)).recordEvaluation(System.nanoTime() - start, evaluationResult);
+        }
+        if (event != null) {
+            EVENTS.commitEvaluation(event, parameters.getName(), rules.getName(index), rules.getPriority(index), evaluationResult, null);
+        }
+        return evaluationResult;
+    }
+
+    /*
+     * Evaluate the condition of a rule, from the condition cache if the condition is deterministic.
+     */
+    private boolean evaluateCondition(CompiledRules rules, int index, Facts facts) {
+        if (conditionCache != null && rules.isDeterministic(index)) {
+            return conditionCache.evaluate(rules, index, facts);
+        }
+        return rules.getRule(index).evaluate(facts);
+    }
+
+    /*
+     * Execute the actions of a rule, recording its latency and failure if metrics are enabled
+     * and emitting execution and failure events if Flight Recorder events are enabled.
+     */
+    void execute(CompiledRules rules, int index, Facts facts) throws Exception {
+        Rule rule = rules.getRule(index);
+        boolean emitted = EVENTS.isExecutionEnabled();
+        if (metrics == null && !emitted) {
+            rule.execute(facts);
+            return;
+        }
+        Object event = emitted ? EVENTS.beginExecution() : null;
+        long start = metrics != null ? System.nanoTime() : 0;
+        Exception failure = null;
+        try {
+            rule.execute(facts);
+        } catch (Exception exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            if (metrics != null) {
+                metrics.forRule(rules.getName(index)).recordExecution(System.nanoTime() - start, failure == null);
+            }
+            if (event != null) {
+                EVENTS.commitExecution(event, parameters.getName(), rules.getName(index), rules.getPriority(index), failure);
+            }
+        }
+    }
+
+    /*
+     * Return the number of rules with a priority under the priority threshold, the first rules in natural order.
+     */
+    int countCandidates(CompiledRules rules) {
+        int priorityThreshold = parameters.getPriorityThreshold();
+        int candidates = 0;
+        while (candidates < rules.size() && rules.getPriority(candidates) <= priorityThreshold) {
+            candidates++;
+        }
+        return candidates;
+    }
+
+    /*
+     * Apply rules by forward chaining: on each cycle, the first triggered rule of the agenda in natural order
+     * is executed, rules not triggered leave the agenda, and the matcher updates the agenda with the facts
+     * changed by the execution. Chaining stops when no rule of the agenda is triggered, when the maximum
+     * number of cycles is reached or when next rules should be skipped.
+     */
+    void chain(CompiledRules rules, Facts facts, BitSet agenda, Matcher matcher, BitSet applied) {
+        Set<String> changes = new HashSet<>();
+        facts.trackChanges(changes);
+        try {
+            int cycles = 0;
+            while (true) {
+                int triggered = selectTriggeredRule(rules, facts, agenda, matcher);
+                if (triggered < 0) {
+                    logger.info("No rule triggered, chaining is complete");
+                    break;
+                }
+                if (cycles == parameters.getMaxInferenceCycles()) {
+                    logger.warning("Maximum number of inference cycles ({0}) reached, next rules will be skipped",
+                            cycles);
+                    break;
+                }
+                cycles++;
+                changes.clear();
+                if (!executeTriggeredRule(rules, triggered, facts, applied)) {
+                    break;
+                }
+                for (String change : changes) {
+                    matcher.factChanged(change, agenda);
+                }
+            }
+        } finally {
+            facts.untrackChanges(changes);
+        }
+    }
+
+    /*
+     * Evaluate rules of the agenda in their natural order until a rule is triggered, removing evaluated rules from the agenda.
+     * Return the index of the triggered rule, or -1 if no rule is triggered.
+     */
+    private int selectTriggeredRule(CompiledRules rules, Facts facts, BitSet agenda, Matcher matcher) {
+        for (int i = agenda.nextSetBit(0); i >= 0; i = agenda.nextSetBit(i + 1)) {
+            agenda.clear(i);
+            Rule rule = rules.getRule(i);
+            String name = rules.getName(i);
+            if (!shouldBeEvaluated(rule, facts)) {
+                logger.info("Rule ''{0}'' has been skipped before being evaluated", name);
+                continue;
+            }
+            if (matcher.isTriggered(i)) {
+                logger.info("Rule ''{0}'' triggered", name);
+                triggerListenersAfterEvaluate(rule, true);
+                return i;
+            }
+            logger.info("Rule ''{0}'' has been evaluated to false, it has not been executed", name);
+            triggerListenersAfterEvaluate(rule, false);
+        }
+        return -1;
+    }
+
+    /*
+     * Execute a triggered rule, return false if next rules should be skipped.
+     */
+    private boolean executeTriggeredRule(CompiledRules rules, int index, Facts facts, BitSet applied) {
+        Rule rule = rules.getRule(index);
+        String name = rules.getName(index);
+        try {
+            triggerListenersBeforeExecute(rule, facts);
+            execute(rules, index, facts);
+            logger.info("Rule ''{0}'' performed successfully", name);
+            if (applied != null) {
+                applied.set(index);
+            }
+            triggerListenersOnSuccess(rule, facts);
+            if (parameters.isSkipOnFirstAppliedRule()) {
+                logger.info("Next rules will be skipped since parameter skipOnFirstAppliedRule is set");
+                return false;
+            }
+        } catch (Exception exception) {
+            logger.severe("Rule ''{0}'' performed with error", name, exception);
+            triggerListenersOnFailure(rule, exception, facts);
+            if (parameters.isSkipOnFirstFailedRule()) {
+                logger.info("Next rules will be skipped since parameter skipOnFirstFailedRule is set");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Apply rules, recording the latency of the fire if metrics are enabled
+     * and emitting a fire event if Flight Recorder events are enabled.
+     */
+    private void applyAndRecord(CompiledRules rules, Facts facts, boolean parallelEvaluation, BitSet applied) {
+        boolean emitted = EVENTS.isFireEnabled();
+        if (metrics == null && !emitted) {
+            apply(rules, facts, parallelEvaluation, applied);
+            return;
+        }
+        Object event = emitted ? EVENTS.beginFire() : null;
+        long start = metrics != null ? System.nanoTime() : 0;
+        try {
+            apply(rules, facts, parallelEvaluation, applied);
+        } finally {
+            if (metrics != null) {
+                metrics.recordFire(System.nanoTime() - start, rules.size());
+            }
+            if (event != null) {
+                EVENTS.commitFire(event, parameters.getName(), rules.size());
+            }
+        }
+    }
+
+    void logEngineParameters() {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logger.info("Engine name: {0}", parameters.getName());
+        logger.info("Rule priority threshold: {0}", parameters.getPriorityThreshold());
+        logger.info("Skip on first applied rule: {0}", parameters.isSkipOnFirstAppliedRule());
+        logger.info("Skip on first non triggered rule: {0}", parameters.isSkipOnFirstNonTriggeredRule());
+        logger.info("Skip on first failed rule: {0}", parameters.isSkipOnFirstFailedRule());
+        logger.info("Parallel evaluation: {0}", parameters.isParallelEvaluation());
+        logger.info("Parallel batches: {0}", parameters.isParallelBatches());
+    }
+
+    void log(Rules rules) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logger.info("Registered rules:");
+        for (Rule rule : rules) {
+            logger.info(format("Rule { name = '%s', description = '%s', priority = '%s'}",
+                    rule.getName(), rule.getDescription(), rule.getPriority()));
+        }
+    }
+
+    void log(Facts facts) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        logger.info("Known facts:");
+        for (Map.Entry<String, Object> fact : facts) {
+            logger.info(format("Fact { %s : %s }", fact.getKey(), fact.getValue()));
+        }
+    }
+
+    /*
+     * Apply compiled rules on facts, recording the index of rules performed successfully in the applied set if any.
+     */
+    abstract void apply(CompiledRules rules, Facts facts, boolean parallelEvaluation, BitSet applied);
+
+    /*
+     * Strategy of forward chaining engines, see chain: tells whether a rule of the agenda is triggered
+     * and updates the agenda when a fact changes.
+     */
+    interface Matcher {
+
+        boolean isTriggered(int index);
+
+        void factChanged(String fact, BitSet agenda);
+    }
+
+}
@@ -49,15 +49,32 @@ class ActionMethodOrderBean implements Comparable<ActionMethodOrderBean> {
         return method;
     }
 
+    /*
+     * Actions with the same order are sorted by name then by parameter types, rather than in the unspecified
+     * order of Class#getMethods(), so that proxies and adapters generated by the annotation processor
+     * execute them in the same order.
+     */
     @Override
     public int compareTo(final ActionMethodOrderBean actionMethodOrderBean) {
-        if (order < actionMethodOrderBean.getOrder()) {
-            return -1;
-        } else if (order > actionMethodOrderBean.getOrder()) {
-            return 1;
-        } else {
-            return method.equals(actionMethodOrderBean.getMethod()) ? 0 : 1;
+        int comparison = Integer.compare(order, actionMethodOrderBean.getOrder());
+        if (comparison == 0) {
+            comparison = method.getName().compareTo(actionMethodOrderBean.getMethod().getName());
         }
+        if (comparison == 0) {
+            comparison = parameterTypes(method).compareTo(parameterTypes(actionMethodOrderBean.getMethod()));
+        }
+        return comparison;
+    }
+
+    private static String parameterTypes(final Method method) {
+        StringBuilder parameterTypes = new StringBuilder();
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (parameterTypes.length() > 0) {
+                parameterTypes.append(',');
+            }
+            parameterTypes.append(parameterType.getTypeName());
+        }
+        return parameterTypes.toString();
     }
 
     @Override
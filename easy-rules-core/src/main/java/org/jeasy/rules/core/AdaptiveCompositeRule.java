@@ -0,0 +1,283 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Composite rule that adapts the order in which conditions of its composing rules are evaluated.
+ *
+ * Like a {@link CompositeRule}, it is triggered if <strong>ALL</strong> conditions of its composing
+ * rules are satisfied, and actions of <strong>ALL</strong> composing rules are performed in their
+ * natural order when it is applied. The cost and the rate of false results of each condition are
+ * recorded, and every given number of evaluations, conditions are sorted by ascending ratio of their
+ * mean cost to their probability of being false: cheap and selective conditions are evaluated first,
+ * which minimizes the expected cost of evaluations stopping at the first false condition.
+ *
+ * Recorded statistics are halved on each reordering so that the order follows changes of facts.
+ * Conditions whose statistics have decayed to nothing are considered free, so that conditions
+ * rarely evaluated behind a selective one are measured again. Conditions of composing rules must not have side
+ * effects, since the order and the number of conditions evaluated change over time.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class AdaptiveCompositeRule extends CompositeRule {
+
+    /**
+     * Default number of evaluations between two reorderings of conditions.
+     */
+    public static final int DEFAULT_REORDERING_INTERVAL = 1000;
+
+    private static final LongSupplier NANO_TIME = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return System.nanoTime();
+        }
+    };
+
+    private static final Comparator<ConditionStatistics> RANK_ORDER = new Comparator<ConditionStatistics>() {
+        @Override
+        public int compare(ConditionStatistics condition, ConditionStatistics otherCondition) {
+            return Double.compare(condition.rank, otherCondition.rank);
+        }
+    };
+
+    private final int reorderingInterval;
+
+    private final LongSupplier clock;
+
+    private final AtomicLong evaluations = new AtomicLong();
+
+    private final Map<Rule, ConditionStatistics> conditionsByRule = new HashMap<>();
+
+    /*
+     * Copied on write, replaced when rules are added or removed and on each reordering.
+     */
+    private volatile ConditionStatistics[] conditions = new ConditionStatistics[0];
+
+    /**
+     * Create a new {@link AdaptiveCompositeRule}.
+     */
+    public AdaptiveCompositeRule() {
+        this(Rule.DEFAULT_NAME, Rule.DEFAULT_DESCRIPTION, Rule.DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Create a new {@link AdaptiveCompositeRule}.
+     *
+     * @param name rule name
+     */
+    public AdaptiveCompositeRule(final String name) {
+        this(name, Rule.DEFAULT_DESCRIPTION, Rule.DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Create a new {@link AdaptiveCompositeRule}.
+     *
+     * @param name rule name
+     * @param description rule description
+     */
+    public AdaptiveCompositeRule(final String name, final String description) {
+        this(name, description, Rule.DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Create a new {@link AdaptiveCompositeRule}.
+     *
+     * @param name rule name
+     * @param description rule description
+     * @param priority rule priority
+     */
+    public AdaptiveCompositeRule(final String name, final String description, final int priority) {
+        this(name, description, priority, DEFAULT_REORDERING_INTERVAL);
+    }
+
+    /**
+     * Create a new {@link AdaptiveCompositeRule}.
+     *
+     * @param name rule name
+     * @param description rule description
+     * @param priority rule priority
+     * @param reorderingInterval number of evaluations between two reorderings of conditions
+     */
+    public AdaptiveCompositeRule(final String name, final String description, final int priority,
+                                 final int reorderingInterval) {
+        this(name, description, priority, reorderingInterval, NANO_TIME);
+    }
+
+    AdaptiveCompositeRule(final String name, final String description, final int priority,
+                          final int reorderingInterval, final LongSupplier clock) {
+        super(name, description, priority);
+        if (reorderingInterval < 1) {
+            throw new IllegalArgumentException("Reordering interval must be positive: " + reorderingInterval);
+        }
+        this.reorderingInterval = reorderingInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * An adaptive composite rule is triggered if <strong>ALL</strong> conditions of all composing rules
+     * are evaluated to true, conditions being evaluated in their adapted order.
+     * @return true if <strong>ALL</strong> conditions of composing rules are evaluated to true
+     */
+    @Override
+    public boolean evaluate(Facts facts) {
+        ConditionStatistics[] order = conditions;
+        if (order.length == 0) {
+            return false;
+        }
+        boolean result = true;
+        for (ConditionStatistics condition : order) {
+            long start = clock.getAsLong();
+            boolean conditionResult = condition.rule.evaluate(facts);
+            condition.record(clock.getAsLong() - start, conditionResult);
+            if (!conditionResult) {
+                result = false;
+                break;
+            }
+        }
+        if (evaluations.incrementAndGet() % reorderingInterval == 0) {
+            reorder();
+        }
+        return result;
+    }
+
+    @Override
+    public void addRule(final Object rule) {
+        super.addRule(rule);
+        updateConditions();
+    }
+
+    @Override
+    public void removeRule(final Object rule) {
+        super.removeRule(rule);
+        updateConditions();
+    }
+
+    /**
+     * Return the order in which conditions of composing rules are currently evaluated.
+     *
+     * @return composing rules in the order their conditions are evaluated
+     */
+    public List<Rule> getEvaluationOrder() {
+        ConditionStatistics[] order = conditions;
+        List<Rule> rules = new ArrayList<>(order.length);
+        for (ConditionStatistics condition : order) {
+            rules.add(condition.rule);
+        }
+        return Collections.unmodifiableList(rules);
+    }
+
+    /*
+     * Conditions of added rules are evaluated first until the next reordering, statistics of other rules are kept.
+     */
+    private synchronized void updateConditions() {
+        Map<Rule, ConditionStatistics> previousConditions = new HashMap<>(conditionsByRule);
+        conditionsByRule.clear();
+        List<ConditionStatistics> order = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            ConditionStatistics condition = previousConditions.get(rule);
+            if (condition == null) {
+                condition = new ConditionStatistics(rule);
+            }
+            conditionsByRule.put(rule, condition);
+            order.add(condition);
+        }
+        Collections.sort(order, RANK_ORDER);
+        conditions = order.toArray(new ConditionStatistics[0]);
+    }
+
+    /*
+     * Rank conditions on recorded statistics and halve them. Ties keep the current order.
+     */
+    private synchronized void reorder() {
+        ConditionStatistics[] order = conditions.clone();
+        for (ConditionStatistics condition : order) {
+            condition.rank();
+        }
+        Arrays.sort(order, RANK_ORDER);
+        conditions = order;
+    }
+
+    /*
+     * Statistics of the condition of a composing rule.
+     */
+    private static final class ConditionStatistics {
+
+        private final Rule rule;
+
+        private final AtomicLong evaluations = new AtomicLong();
+
+        private final AtomicLong falseResults = new AtomicLong();
+
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        /*
+         * Ratio of the mean cost of the condition to its probability of being false, conditions
+         * with lower ranks are evaluated first. Written and read under the lock of the composite rule.
+         */
+        private double rank;
+
+        ConditionStatistics(final Rule rule) {
+            this.rule = rule;
+        }
+
+        void record(long nanos, boolean result) {
+            evaluations.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            if (!result) {
+                falseResults.incrementAndGet();
+            }
+        }
+
+        void rank() {
+            long count = evaluations.get();
+            long falseCount = falseResults.get();
+            long nanos = totalNanos.get();
+            if (count == 0) {
+                rank = 0;
+                return;
+            }
+            double meanCost = (double) nanos / count;
+            // Laplace smoothing, so that conditions never false are ranked on their cost
+            double falseProbability = (falseCount + 1.0) / (count + 2.0);
+            rank = meanCost / falseProbability;
+            // halves are subtracted so that records made concurrently are kept
+            evaluations.addAndGet(-(count - count / 2));
+            falseResults.addAndGet(-(falseCount - falseCount / 2));
+            totalNanos.addAndGet(-(nanos - nanos / 2));
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link RuleListener} notifying a delegate listener asynchronously on a background thread, so that
+ * listeners such as audit or metrics listeners do not add latency to fires.
+ *
+ * Events are published without locking in a bounded ring buffer of preallocated slots, and
+ * are delivered in order by a single daemon thread, started with the first event and parked while
+ * the buffer is empty. When the buffer is full, events are dropped and counted rather than blocking
+ * the engine, see {@link #getDroppedEvents()}.
+ *
+ * Since it is notified later, the delegate can not prevent rules from being evaluated:
+ * {@link #beforeEvaluate(Rule, Facts)} always returns true.
+ *
+ * <strong>Facts are not copied:</strong> the delegate is given the live {@link Facts} of the fire and reads them
+ * on the delivering thread while the engine may still change them. Since {@link Facts} are not thread safe, this
+ * is a data race: the delegate may see missing, stale or partially updated facts. Delegates should copy
+ * the few fact values they need right away and tolerate inconsistent values, or the engine should fire a snapshot
+ * of facts which is not changed afterwards. Delegates should never change facts.
+ * The listener should be closed to stop its thread once the engine is not used anymore, which
+ * {@link AbstractRulesEngine#close()} does for the listeners registered on an engine.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class AsyncRuleListener implements RuleListener, AutoCloseable {
+
+    /**
+     * Default number of events the buffer can hold.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncRuleListener.class.getName());
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    /*
+     * Flag set on the tail when the listener is closed, fixing the position of the last event to deliver.
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private static final int BEFORE_EVALUATE = 0;
+    private static final int AFTER_EVALUATE = 1;
+    private static final int BEFORE_EXECUTE = 2;
+    private static final int ON_SUCCESS = 3;
+    private static final int ON_FAILURE = 4;
+
+    private final RuleListener delegate;
+
+    private final int mask;
+
+    private final Event[] events;
+
+    /*
+     * Sequence of each slot: equal to the position of the next event to publish in the slot when the slot is free,
+     * and to this position + 1 once the event is published.
+     */
+    private final AtomicLongArray sequences;
+
+    /*
+     * Position of the next event to publish, with the CLOSED flag once the listener is closed.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final Object threadLock = new Object();
+
+    /*
+     * Delivering thread, null until the first event is published.
+     */
+    private volatile Thread thread;
+
+    /*
+     * Set by the delivering thread before parking, so that publishers unpark it only when it may be parked.
+     */
+    private volatile boolean waiting;
+
+    /**
+     * Create an asynchronous listener with a buffer of {@link #DEFAULT_CAPACITY} events.
+     *
+     * @param delegate listener to notify
+     */
+    public AsyncRuleListener(final RuleListener delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create an asynchronous listener.
+     *
+     * @param delegate listener to notify
+     * @param capacity number of events the buffer can hold, rounded up to a power of two
+     */
+    public AsyncRuleListener(final RuleListener delegate, final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.delegate = delegate;
+        this.mask = size - 1;
+        this.events = new Event[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Return the delegate listener.
+     *
+     * @return the listener notified asynchronously
+     */
+    public RuleListener getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Return the number of events dropped because the buffer was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public boolean beforeEvaluate(Rule rule, Facts facts) {
+        publish(BEFORE_EVALUATE, rule, facts, false, null);
+        return true;
+    }
+
+    @Override
+    public void afterEvaluate(Rule rule, boolean evaluationResult) {
+        publish(AFTER_EVALUATE, rule, null, evaluationResult, null);
+    }
+
+    @Override
+    public void beforeExecute(Rule rule, Facts facts) {
+        publish(BEFORE_EXECUTE, rule, facts, false, null);
+    }
+
+    @Override
+    public void onSuccess(Rule rule, Facts facts) {
+        publish(ON_SUCCESS, rule, facts, false, null);
+    }
+
+    @Override
+    public void onFailure(Rule rule, Exception exception, Facts facts) {
+        publish(ON_FAILURE, rule, facts, false, exception);
+    }
+
+    /**
+     * Deliver pending events and stop the thread of this listener. Events published concurrently are either
+     * delivered or dropped, events published afterwards are dropped. Closing a closed listener has no effect.
+     */
+    @Override
+    public void close() {
+        long position = tail.get();
+        while (position >= 0 && !tail.compareAndSet(position, position | CLOSED)) {
+            position = tail.get();
+        }
+        if (position <= 0) {
+            // already closed, or closed before any event has been published
+            return;
+        }
+        Thread deliveringThread = startThread();
+        LockSupport.unpark(deliveringThread);
+        if (Thread.currentThread() == deliveringThread) {
+            // closed by the delegate, the delivering thread stops after the current event
+            return;
+        }
+        try {
+            deliveringThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(int type, Rule rule, Facts facts, boolean evaluationResult, Exception exception) {
+        long position = tail.get();
+        while (true) {
+            if (position < 0) {
+                droppedEvents.increment();
+                return;
+            }
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index].set(type, rule, facts, evaluationResult, exception);
+                    sequences.set(index, position + 1);
+                    signal();
+                    return;
+                }
+            } else if (sequence < position) {
+                // the slot still holds the event published one lap before: the buffer is full
+                droppedEvents.increment();
+                return;
+            }
+            position = tail.get();
+        }
+    }
+
+    /*
+     * Wake the delivering thread up after an event has been published, starting it on the first event.
+     * Reading the waiting flag after the (volatile) sequence write pairs with the delivering thread
+     * checking the sequence after setting the flag: either the thread sees the event, or it is unparked.
+     */
+    private void signal() {
+        Thread deliveringThread = thread;
+        if (deliveringThread == null) {
+            startThread();
+        } else if (waiting) {
+            LockSupport.unpark(deliveringThread);
+        }
+    }
+
+    private Thread startThread() {
+        synchronized (threadLock) {
+            if (thread == null) {
+                Thread deliveringThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver();
+                    }
+                }, "easy-rules-listener-" + THREADS.incrementAndGet());
+                deliveringThread.setDaemon(true);
+                deliveringThread.start();
+                thread = deliveringThread;
+            }
+            return thread;
+        }
+    }
+
+    private void deliver() {
+        long head = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) == head + 1) {
+                // copy the event so that its slot is freed before the delegate is notified
+                Event event = events[index];
+                int type = event.type;
+                Rule rule = event.rule;
+                Facts facts = event.facts;
+                boolean evaluationResult = event.evaluationResult;
+                Exception exception = event.exception;
+                event.clear();
+                sequences.set(index, head + mask + 1);
+                head++;
+                notifyDelegate(type, rule, facts, evaluationResult, exception);
+            } else if (tail.get() == (head | CLOSED)) {
+                return;
+            } else {
+                waiting = true;
+                if (sequences.get(index) != head + 1 && tail.get() >= 0) {
+                    LockSupport.park(this);
+                }
+                waiting = false;
+            }
+        }
+    }
+
+    private void notifyDelegate(int type, Rule rule, Facts facts, boolean evaluationResult, Exception exception) {
+        try {
+            switch (type) {
+                case BEFORE_EVALUATE:
+                    delegate.beforeEvaluate(rule, facts);
+                    break;
+                case AFTER_EVALUATE:
+                    delegate.afterEvaluate(rule, evaluationResult);
+                    break;
+                case BEFORE_EXECUTE:
+                    delegate.beforeExecute(rule, facts);
+                    break;
+                case ON_SUCCESS:
+                    delegate.onSuccess(rule, facts);
+                    break;
+                default:
+                    delegate.onFailure(rule, exception, facts);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Rule listener failed", e);
+        }
+    }
+
+    /*
+     * Slot of the ring buffer, written by the publishing thread and read by the delivering thread,
+     * the slot sequence ordering these accesses.
+     */
+    private static final class Event {
+
+        private int type;
+
+        private Rule rule;
+
+        private Facts facts;
+
+        private boolean evaluationResult;
+
+        private Exception exception;
+
+        void set(int type, Rule rule, Facts facts, boolean evaluationResult, Exception exception) {
+            this.type = type;
+            this.rule = rule;
+            this.facts = facts;
+            this.evaluationResult = evaluationResult;
+            this.exception = exception;
+        }
+
+        void clear() {
+            set(0, null, null, false, null);
+        }
+    }
+
+}
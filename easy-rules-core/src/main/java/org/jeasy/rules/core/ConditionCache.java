@@ -0,0 +1,339 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the results of deterministic conditions, see {@link Rule#isDeterministic()}.
+ *
+ * Results are keyed by rule and by the values of the facts the condition depends on, compared
+ * with {@link Object#equals(Object)}: facts must not be mutated while they are in facts given to
+ * engines. Conditions are evaluated without the cache when one of these facts is missing.
+ *
+ * The cache is split in segments, each being a least recently used map guarded by its own lock,
+ * so the least recently used result of a segment is evicted when the segment is full. Results
+ * may also expire a given time after they have been computed. Conditions are evaluated outside
+ * of locks, concurrent misses on the same key may evaluate the condition more than once.
+ * Give an instance to {@link RulesEngineBuilder#withConditionCache(ConditionCache)} to cache
+ * the conditions evaluated by an engine. An instance may be shared by several engines.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class ConditionCache {
+
+    /**
+     * Default maximum number of cached results.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    private static final int MINIMUM_SEGMENT_SIZE = 64;
+
+    private static final LongSupplier NANO_TIME = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Segment[] segments;
+
+    private final int maximumSize;
+
+    private final long timeToLive;
+
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a cache of at most {@link #DEFAULT_MAXIMUM_SIZE} results that do not expire.
+     */
+    public ConditionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Create a cache of results that do not expire.
+     *
+     * @param maximumSize maximum number of cached results
+     */
+    public ConditionCache(final int maximumSize) {
+        this(maximumSize, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create a cache of results that expire a given time after they have been computed.
+     *
+     * @param maximumSize maximum number of cached results
+     * @param timeToLive time after which results expire, 0 for results that do not expire
+     * @param unit unit of the time to live
+     */
+    public ConditionCache(final int maximumSize, final long timeToLive, final TimeUnit unit) {
+        this(maximumSize, unit.toNanos(timeToLive), NANO_TIME);
+    }
+
+    ConditionCache(final int maximumSize, final long timeToLive, final LongSupplier clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live must not be negative: " + timeToLive);
+        }
+        int segmentCount = 1;
+        while (segmentCount < MAXIMUM_SEGMENTS && maximumSize / (segmentCount * 2) >= MINIMUM_SEGMENT_SIZE) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // sizes of segments add up to the maximum size
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /*
+     * Evaluate the deterministic condition of the rule at the given index, from the cache if possible.
+     */
+    boolean evaluate(CompiledRules rules, int index, Facts facts) {
+        Rule rule = rules.getRule(index);
+        Object[] values = rules.resolveDeterministicFacts(index, facts);
+        if (values == null) {
+            return rule.evaluate(facts);
+        }
+        Key key = new Key(rule, values);
+        Segment segment = segments[key.hash & (segments.length - 1)];
+        long now = timeToLive > 0 ? clock.getAsLong() : 0;
+        Boolean cachedResult = segment.get(key, now);
+        if (cachedResult != null) {
+            hits.increment();
+            return cachedResult;
+        }
+        misses.increment();
+        boolean result = rule.evaluate(facts);
+        segment.put(key, new Result(result, timeToLive > 0 ? now + timeToLive : 0));
+        return result;
+    }
+
+    /**
+     * Return the maximum number of cached results.
+     *
+     * @return the maximum number of cached results
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Return the number of cached results, including expired results not evicted yet.
+     *
+     * @return the number of cached results
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Return the number of conditions evaluations served from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Return the number of conditions evaluations not served from the cache, evaluations
+     * of conditions depending on missing facts excluded.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Return the ratio of hits to cached evaluations.
+     *
+     * @return the hit rate between 0 and 1, 0 if no evaluation has been cached
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Return the number of results evicted because the cache was full or because they expired.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Remove all cached results, for example after facts have been mutated in place.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Forget hit, miss and eviction counts.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ConditionCache{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                ", hitRate=" + getHitRate() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+
+    /*
+     * A least recently used map of results guarded by its own lock.
+     */
+    private final class Segment {
+
+        private final Map<Key, Result> results;
+
+        Segment(final int capacity) {
+            this.results = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Boolean get(Key key, long now) {
+            Result result = results.get(key);
+            if (result == null) {
+                return null;
+            }
+            if (result.expiration != 0 && now - result.expiration >= 0) {
+                results.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return result.value;
+        }
+
+        synchronized void put(Key key, Result result) {
+            results.put(key, result);
+        }
+
+        synchronized int size() {
+            return results.size();
+        }
+
+        synchronized void clear() {
+            results.clear();
+        }
+    }
+
+    /*
+     * Rules are compared by identity: rules of different rule sets may have the same name.
+     */
+    private static final class Key {
+
+        private final Rule rule;
+
+        private final Object[] values;
+
+        private final int hash;
+
+        Key(final Rule rule, final Object[] values) {
+            this.rule = rule;
+            this.values = values;
+            int h = 31 * System.identityHashCode(rule) + Arrays.hashCode(values);
+            // spread high bits to the low bits selecting segments
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rule == key.rule && hash == key.hash && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Result {
+
+        private final boolean value;
+
+        private final long expiration;
+
+        Result(final boolean value, final long expiration) {
+            this.value = value;
+            this.expiration = expiration;
+        }
+    }
+}
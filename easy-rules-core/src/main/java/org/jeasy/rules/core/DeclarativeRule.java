@@ -0,0 +1,88 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Rule whose condition is a conjunction of {@link FactCondition}s, see {@link DeclarativeRuleBuilder}.
+ *
+ * Any engine can fire declarative rules. A {@link ReteRulesEngine} additionally matches their
+ * conditions incrementally.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class DeclarativeRule extends BasicRule {
+
+    private final List<FactCondition> conditions;
+
+    private final List<Consumer<Facts>> actions;
+
+    private final Set<String> factNames;
+
+    DeclarativeRule(final String name, final String description, final int priority,
+                    final List<FactCondition> conditions, final List<Consumer<Facts>> actions) {
+        super(name, description, priority);
+        this.conditions = Collections.unmodifiableList(new ArrayList<>(conditions));
+        this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+        Set<String> names = new LinkedHashSet<>();
+        for (FactCondition condition : conditions) {
+            names.add(condition.getFactName());
+        }
+        this.factNames = Collections.unmodifiableSet(names);
+    }
+
+    public List<FactCondition> getConditions() {
+        return conditions;
+    }
+
+    @Override
+    public boolean evaluate(final Facts facts) {
+        for (FactCondition condition : conditions) {
+            if (!condition.test(facts)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void execute(final Facts facts) throws Exception {
+        for (Consumer<Facts> action : actions) {
+            action.accept(facts);
+        }
+    }
+
+    @Override
+    public Set<String> getFactNames() {
+        return factNames;
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Builder for {@link DeclarativeRule} instances.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class DeclarativeRuleBuilder {
+
+    private String name = Rule.DEFAULT_NAME;
+
+    private String description = Rule.DEFAULT_DESCRIPTION;
+
+    private int priority = Rule.DEFAULT_PRIORITY;
+
+    private final List<FactCondition> conditions = new ArrayList<>();
+
+    private final List<Consumer<Facts>> actions = new ArrayList<>();
+
+    public static DeclarativeRuleBuilder aNewRule() {
+        return new DeclarativeRuleBuilder();
+    }
+
+    private DeclarativeRuleBuilder() {
+    }
+
+    public DeclarativeRuleBuilder named(final String name) {
+        this.name = name;
+        return this;
+    }
+
+    public DeclarativeRuleBuilder withDescription(final String description) {
+        this.description = description;
+        return this;
+    }
+
+    public DeclarativeRuleBuilder withPriority(final int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Add a condition on a fact. A missing fact does not satisfy the condition.
+     *
+     * @param factName name of the fact
+     * @param predicate to test the fact with
+     * @param <T> type of the fact
+     * @return the builder
+     */
+    public <T> DeclarativeRuleBuilder when(final String factName, final Predicate<? super T> predicate) {
+        return when(FactCondition.of(factName, predicate));
+    }
+
+    public DeclarativeRuleBuilder when(final FactCondition condition) {
+        conditions.add(condition);
+        return this;
+    }
+
+    public DeclarativeRuleBuilder then(final Consumer<Facts> action) {
+        actions.add(action);
+        return this;
+    }
+
+    public DeclarativeRule build() {
+        return new DeclarativeRule(name, description, priority, conditions, actions);
+    }
+
+}
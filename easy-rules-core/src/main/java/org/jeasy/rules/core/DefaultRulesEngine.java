@@ -26,10 +26,9 @@ package org.jeasy.rules.core;
 import org.jeasy.rules.api.*;
 
 import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-
-import static java.lang.String.format;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Default {@link RulesEngine} implementation.
@@ -37,120 +36,96 @@ import static java.lang.String.format;
  * This implementation handles a set of rules with unique name.
  *
  * Rules are fired according to their natural order which is priority by default.
+ * Rules are sorted on each fire unless they are given as {@link CompiledRules}, see {@link Rules#compile()}.
+ *
+ * An engine is thread safe: its parameters and rule listeners are snapshotted when it is created,
+ * so a single engine can fire rules concurrently from multiple threads without locking. Rules given
+ * to concurrent fires must not be modified meanwhile, which is guaranteed by {@link CompiledRules}.
+ * Rules, listeners and facts themselves must be thread safe if they are shared between threads.
+ * Parameters may only be tuned afterwards through JMX, see {@link RulesEngineMonitor}.
+ *
+ * When parallel evaluation is enabled, the conditions of rules under the priority threshold are
+ * evaluated concurrently on the evaluation executor against facts as they are when fire is called,
+ * while actions are still executed one at a time in the natural order of rules. This mode suits
+ * rules with costly conditions and actions that do not change the facts read by other conditions.
+ * Listeners are asked whether to evaluate each rule before any condition is evaluated, and the skip
+ * parameters keep their meaning: pending evaluations are cancelled when next rules are skipped.
  *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
-public final class DefaultRulesEngine implements RulesEngine {
-
-    private static final Logger LOGGER = Logger.getLogger(RulesEngine.class.getName());
-
-    /**
-     * The engine parameters
-     */
-    private RulesEngineParameters parameters;
-
-    /**
-     * The registered rule listeners.
-     */
-    private List<RuleListener> ruleListeners;
+public final class DefaultRulesEngine extends AbstractRulesEngine {
 
     public DefaultRulesEngine() {
-        this.parameters = new RulesEngineParameters();
-        this.ruleListeners = new ArrayList<>();
-    }
-
-    DefaultRulesEngine(final RulesEngineParameters parameters, final List<RuleListener> ruleListeners) {
-        this.parameters = parameters;
-        this.ruleListeners = ruleListeners;
-        if (parameters.isSilentMode()) {
-            Utils.muteLoggers();
-        }
+        super();
     }
 
-    @Override
-    public RulesEngineParameters getParameters() {
-        return parameters;
+    DefaultRulesEngine(final RulesEngineParameters parameters, final List<RuleListener> ruleListeners,
+                       final Executor evaluationExecutor, final Executor asyncExecutor,
+                       final EngineMetrics metrics, final ConditionCache conditionCache) {
+        super(parameters, ruleListeners, evaluationExecutor, asyncExecutor, metrics, conditionCache);
     }
 
     @Override
-    public List<RuleListener> getRuleListeners() {
-        return ruleListeners;
-    }
-
-    @Override
-    public void fire(Rules rules, Facts facts) {
-        if (rules.isEmpty()) {
-            LOGGER.warning("No rules registered! Nothing to apply");
-            return;
-        }
-        sort(rules);
-        logEngineParameters();
-        log(rules, facts);
-        apply(rules, facts);
-    }
-
-    @Override
-    public Map<Rule, Boolean> check(Rules rules, Facts facts) {
-        LOGGER.info("Checking rules");
-        sort(rules);
-        Map<Rule, Boolean> result = new HashMap<>();
-        for (Rule rule : rules) {
-            if (shouldBeEvaluated(rule, facts)) {
-                result.put(rule, rule.evaluate(facts));
+    void apply(CompiledRules rules, Facts facts, boolean parallelEvaluation, BitSet applied) {
+
+        logger.info("Rules evaluation started");
+        CompletableFuture<Boolean>[] evaluations = parallelEvaluation ? evaluateInParallel(rules, facts) : null;
+        try {
+            apply(rules, facts, evaluations, applied);
+        } finally {
+            if (evaluations != null) {
+                cancel(evaluations);
             }
         }
-        return result;
     }
 
-    private void sort(Rules rules) {
-        rules.sort();
-    }
-
-    private void apply(Rules rules, Facts facts) {
-
-        LOGGER.info("Rules evaluation started");
-        for (Rule rule : rules) {
+    private void apply(CompiledRules rules, Facts facts, CompletableFuture<Boolean>[] evaluations, BitSet applied) {
+        for (int i = 0; i < rules.size(); i++) {
 
-            final String name = rule.getName();
-            final int priority = rule.getPriority();
+            final Rule rule = rules.getRule(i);
+            final String name = rules.getName(i);
+            final int priority = rules.getPriority(i);
 
             if (priority > parameters.getPriorityThreshold()) {
-                LOGGER.log(Level.INFO,
+                logger.info(
                         "Rule priority threshold ({0}) exceeded at rule ''{1}'' with priority={2}, next rules will be skipped",
-                        new Object[]{parameters.getPriorityThreshold(), name, priority});
+                        parameters.getPriorityThreshold(), name, priority);
                 break;
             }
 
-            if (!shouldBeEvaluated(rule, facts)) {
-                LOGGER.log(Level.INFO, "Rule ''{0}'' has been skipped before being evaluated", name);
+            if (evaluations == null ? !shouldBeEvaluated(rule, facts) : evaluations[i] == null) {
+                logger.info("Rule ''{0}'' has been skipped before being evaluated", name);
                 continue;
             }
-            if (rule.evaluate(facts)) {
-                LOGGER.log(Level.INFO, "Rule ''{0}'' triggered", name);
+            if (evaluations == null ? evaluate(rules, i, facts) : join(evaluations[i])) {
+                logger.info("Rule ''{0}'' triggered", name);
                 triggerListenersAfterEvaluate(rule, true);
                 try {
                     triggerListenersBeforeExecute(rule, facts);
-                    rule.execute(facts);
-                    LOGGER.log(Level.INFO, "Rule ''{0}'' performed successfully", name);
+                    execute(rules, i, facts);
+                    logger.info("Rule ''{0}'' performed successfully", name);
+                    if (applied != null) {
+                        applied.set(i);
+                    }
                     triggerListenersOnSuccess(rule, facts);
 
                     if (parameters.isSkipOnFirstAppliedRule()) {
-                        LOGGER.info("Next rules will be skipped since parameter skipOnFirstAppliedRule is set");
+                        logger.info("Next rules will be skipped since parameter skipOnFirstAppliedRule is set");
                         break;
                     }
                 } catch (Exception exception) {
-                    LOGGER.log(Level.SEVERE, String.format("Rule '%s' performed with error", name), exception);
+                    logger.severe("Rule ''{0}'' performed with error", name, exception);
                     triggerListenersOnFailure(rule, exception, facts);
                     if (parameters.isSkipOnFirstFailedRule()) {
-                        LOGGER.info("Next rules will be skipped since parameter skipOnFirstFailedRule is set");
+                        logger.info("Next rules will be skipped since parameter skipOnFirstFailedRule is set");
                         break;
                     }
                 }
             } else {
-                LOGGER.log(Level.INFO, "Rule ''{0}'' has been evaluated to false, it has not been executed", name);
+                logger.info("Rule ''{0}'' has been evaluated to false, it has not been executed", name);
                 triggerListenersAfterEvaluate(rule, false);
                 if (parameters.isSkipOnFirstNonTriggeredRule()) {
-                    LOGGER.info("Next rules will be skipped since parameter skipOnFirstNonTriggeredRule is set");
+                    logger.info("Next rules will be skipped since parameter skipOnFirstNonTriggeredRule is set");
                     break;
                 }
             }
@@ -159,61 +134,33 @@ public final class DefaultRulesEngine implements RulesEngine {
 
     }
 
-    private void triggerListenersOnFailure(final Rule rule, final Exception exception, Facts facts) {
-        for (RuleListener ruleListener : ruleListeners) {
-            ruleListener.onFailure(rule, exception, facts);
-        }
-    }
-
-    private void triggerListenersOnSuccess(final Rule rule, Facts facts) {
-        for (RuleListener ruleListener : ruleListeners) {
-            ruleListener.onSuccess(rule, facts);
-        }
-    }
-
-    private void triggerListenersBeforeExecute(final Rule rule, Facts facts) {
-        for (RuleListener ruleListener : ruleListeners) {
-            ruleListener.beforeExecute(rule, facts);
-        }
-    }
-
-    private boolean triggerListenersBeforeEvaluate(Rule rule, Facts facts) {
-        for (RuleListener ruleListener : ruleListeners) {
-            if (!ruleListener.beforeEvaluate(rule, facts)) {
-                return false;
+    /*
+     * Start the evaluation of rules under the priority threshold, in their natural order.
+     * The evaluation of a rule skipped by a listener is null.
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Boolean>[] evaluateInParallel(final CompiledRules rules, final Facts facts) {
+        CompletableFuture<Boolean>[] evaluations = new CompletableFuture[rules.size()];
+        for (int i = 0; i < rules.size() && rules.getPriority(i) <= parameters.getPriorityThreshold(); i++) {
+            final Rule rule = rules.getRule(i);
+            final int index = i;
+            if (shouldBeEvaluated(rule, facts)) {
+                evaluations[i] = CompletableFuture.supplyAsync(new Supplier<Boolean>() {
+                    @Override
+                    public Boolean get() {
+                        return evaluate(rules, index, facts);
+                    }
+                }, evaluationExecutor);
             }
         }
-        return true;
-    }
-
-    private void triggerListenersAfterEvaluate(Rule rule, boolean evaluationResult) {
-        for (RuleListener ruleListener : ruleListeners) {
-            ruleListener.afterEvaluate(rule, evaluationResult);
-        }
-    }
-
-    private boolean shouldBeEvaluated(Rule rule, Facts facts) {
-        return triggerListenersBeforeEvaluate(rule, facts);
+        return evaluations;
     }
 
-    private void logEngineParameters() {
-        LOGGER.log(Level.INFO, "Engine name: {0}", parameters.getName());
-        LOGGER.log(Level.INFO, "Rule priority threshold: {0}", parameters.getPriorityThreshold());
-        LOGGER.log(Level.INFO, "Skip on first applied rule: {0}", parameters.isSkipOnFirstAppliedRule());
-        LOGGER.log(Level.INFO, "Skip on first non triggered rule: {0}", parameters.isSkipOnFirstNonTriggeredRule());
-        LOGGER.log(Level.INFO, "Skip on first failed rule: {0}", parameters.isSkipOnFirstFailedRule());
-    }
-
-    private void log(Rules rules, Facts facts) {
-        LOGGER.log(Level.INFO, "Registered rules:");
-        for (Rule rule : rules) {
-            LOGGER.log(Level.INFO, format("Rule { name = '%s', description = '%s', priority = '%s'}",
-                    rule.getName(), rule.getDescription(), rule.getPriority()));
-        }
-
-        LOGGER.log(Level.INFO, "Known facts:");
-        for (Map.Entry<String, Object> fact : facts) {
-            LOGGER.log(Level.INFO, format("Fact { %s : %s }", fact.getKey(), fact.getValue().toString()));
+    private static void cancel(CompletableFuture<Boolean>[] evaluations) {
+        for (CompletableFuture<Boolean> evaluation : evaluations) {
+            if (evaluation != null) {
+                evaluation.cancel(false);
+            }
         }
     }
 
@@ -0,0 +1,107 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Logger of an engine, checking whether a message would be logged before doing anything else.
+ *
+ * Messages are {@link java.text.MessageFormat} patterns formatted by handlers, only when records are
+ * published. Methods take a fixed number of parameters so that calls allocate no array, and callers
+ * building costly parameters should check {@link #isInfoEnabled()} first. A silent logger logs nothing
+ * whatever the configuration of the underlying logger.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class EngineLogger {
+
+    private final Logger logger;
+
+    private final String sourceClassName;
+
+    private final boolean silent;
+
+    EngineLogger(final Logger logger, final Class<?> sourceClass, final boolean silent) {
+        this.logger = logger;
+        this.sourceClassName = sourceClass.getName();
+        this.silent = silent;
+    }
+
+    boolean isInfoEnabled() {
+        return isEnabled(Level.INFO);
+    }
+
+    boolean isEnabled(Level level) {
+        return !silent && logger.isLoggable(level);
+    }
+
+    void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message, null, null);
+        }
+    }
+
+    void info(String pattern, Object parameter) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[]{parameter}, null);
+        }
+    }
+
+    void info(String pattern, Object parameter1, Object parameter2, Object parameter3) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[]{parameter1, parameter2, parameter3}, null);
+        }
+    }
+
+    void warning(String message) {
+        if (isEnabled(Level.WARNING)) {
+            log(Level.WARNING, message, null, null);
+        }
+    }
+
+    void warning(String pattern, Object parameter) {
+        if (isEnabled(Level.WARNING)) {
+            log(Level.WARNING, pattern, new Object[]{parameter}, null);
+        }
+    }
+
+    void severe(String pattern, Object parameter, Throwable thrown) {
+        if (isEnabled(Level.SEVERE)) {
+            log(Level.SEVERE, pattern, new Object[]{parameter}, thrown);
+        }
+    }
+
+    private void log(Level level, String pattern, Object[] parameters, Throwable thrown) {
+        LogRecord record = new LogRecord(level, pattern);
+        record.setLoggerName(logger.getName());
+        record.setSourceClassName(sourceClassName);
+        record.setParameters(parameters);
+        record.setThrown(thrown);
+        logger.log(record);
+    }
+
+}
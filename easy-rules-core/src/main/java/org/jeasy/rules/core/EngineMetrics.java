@@ -0,0 +1,130 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Metrics recorded by an engine for each rule it applies, along with the latencies of fires.
+ *
+ * Metrics are recorded in lock-free structures (see {@link LatencyHistogram}) and are keyed by rule
+ * name, so metrics of rules having the same name are merged. Give an instance to
+ * {@link RulesEngineBuilder#withMetrics(EngineMetrics)} to record the metrics of an engine: engines
+ * without metrics do not read the clock. An instance may be shared by several engines.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class EngineMetrics {
+
+    private final ConcurrentMap<String, RuleMetrics> ruleMetrics = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram fireLatencies = new LatencyHistogram();
+
+    private volatile long startTime = System.nanoTime();
+
+    private volatile int lastFiredRules;
+
+    /**
+     * Return the metrics of a rule.
+     *
+     * @param ruleName name of the rule
+     * @return the live metrics of the rule, or null if no metrics has been recorded for this rule
+     */
+    public RuleMetrics getRuleMetrics(String ruleName) {
+        return ruleMetrics.get(ruleName);
+    }
+
+    /**
+     * Return the latencies of fires, their count is the number of fires including each facts of batches.
+     *
+     * @return the latencies of fires
+     */
+    public LatencyHistogram getFireLatencies() {
+        return fireLatencies;
+    }
+
+    /**
+     * Return the number of fires per second since metrics have been created or reset.
+     *
+     * @return the number of fires per second
+     */
+    public double getFireThroughput() {
+        long elapsed = System.nanoTime() - startTime;
+        return elapsed <= 0 ? 0 : fireLatencies.getCount() * 1e9 / elapsed;
+    }
+
+    /**
+     * Return the number of rules given to the last fire.
+     *
+     * @return the number of rules of the last fire, 0 if no fire has been recorded
+     */
+    public int getLastFiredRules() {
+        return lastFiredRules;
+    }
+
+    /**
+     * Return a copy of the metrics of each rule.
+     *
+     * @return copies of the metrics of rules sorted by rule name
+     */
+    public Map<String, RuleMetrics> snapshot() {
+        Map<String, RuleMetrics> snapshot = new TreeMap<>();
+        for (RuleMetrics metrics : ruleMetrics.values()) {
+            snapshot.put(metrics.getName(), metrics.snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Forget recorded metrics.
+     */
+    public void reset() {
+        for (RuleMetrics metrics : ruleMetrics.values()) {
+            metrics.reset();
+        }
+        fireLatencies.reset();
+        startTime = System.nanoTime();
+    }
+
+    void recordFire(long nanos, int rules) {
+        fireLatencies.record(nanos);
+        lastFiredRules = rules;
+    }
+
+    RuleMetrics forRule(String ruleName) {
+        RuleMetrics metrics = ruleMetrics.get(ruleName);
+        if (metrics == null) {
+            RuleMetrics newMetrics = new RuleMetrics(ruleName);
+            metrics = ruleMetrics.putIfAbsent(ruleName, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+
+}
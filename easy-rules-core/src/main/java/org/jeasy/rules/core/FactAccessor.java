@@ -0,0 +1,121 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.FactSchema;
+import org.jeasy.rules.api.Facts;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * Accessor of a named fact, bound to the slot of the fact once per {@link FactSchema}.
+ * Slots of up to 8 schemas are kept, facts of other schemas are looked up in the schema on each access.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class FactAccessor {
+
+    private final String name;
+
+    /*
+     * Bound schemas are few and long lived, but accessors are shared by all instances of a rule class
+     * and may see several schemas in turn: slots are kept for each schema in a small copy on write array,
+     * so that reading a fact from a bound schema neither allocates nor writes.
+     */
+    private static final int MAX_BINDINGS = 8;
+
+    private volatile SlotBinding[] slotBindings = new SlotBinding[0];
+
+    FactAccessor(final String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Object get(final Facts facts) {
+        int slot = getSlot(facts.getSchema());
+        Object fact = slot != FactSchema.NO_SLOT ? facts.get(slot) : facts.get(name);
+        if (fact == null) {
+            throw new RuntimeException(format("No fact named %s found in known facts", name));
+        }
+        return fact;
+    }
+
+    int getInt(final Facts facts) {
+        int slot = getSlot(facts.getSchema());
+        return slot != FactSchema.NO_SLOT ? facts.getInt(slot) : facts.getInt(name);
+    }
+
+    long getLong(final Facts facts) {
+        int slot = getSlot(facts.getSchema());
+        return slot != FactSchema.NO_SLOT ? facts.getLong(slot) : facts.getLong(name);
+    }
+
+    double getDouble(final Facts facts) {
+        int slot = getSlot(facts.getSchema());
+        return slot != FactSchema.NO_SLOT ? facts.getDouble(slot) : facts.getDouble(name);
+    }
+
+    boolean getBoolean(final Facts facts) {
+        int slot = getSlot(facts.getSchema());
+        return slot != FactSchema.NO_SLOT ? facts.getBoolean(slot) : facts.getBoolean(name);
+    }
+
+    private int getSlot(final FactSchema schema) {
+        if (schema == null) {
+            return FactSchema.NO_SLOT;
+        }
+        SlotBinding[] bindings = slotBindings;
+        for (SlotBinding binding : bindings) {
+            if (binding.schema == schema) {
+                return binding.slot;
+            }
+        }
+        int slot = schema.getSlot(name);
+        if (bindings.length < MAX_BINDINGS) {
+            // a race may lose a binding, which is then computed again on next access
+            SlotBinding[] newBindings = Arrays.copyOf(bindings, bindings.length + 1);
+            newBindings[bindings.length] = new SlotBinding(schema, slot);
+            slotBindings = newBindings;
+        }
+        return slot;
+    }
+
+    private static final class SlotBinding {
+
+        private final FactSchema schema;
+
+        private final int slot;
+
+        SlotBinding(final FactSchema schema, final int slot) {
+            this.schema = schema;
+            this.slot = slot;
+        }
+    }
+
+}
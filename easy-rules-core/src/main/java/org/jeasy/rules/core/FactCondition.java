@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+
+import java.util.function.Predicate;
+
+/**
+ * Declarative condition testing a single named fact, see {@link DeclarativeRule}.
+ *
+ * Conditions are equal when they test the same fact with equal predicates, which allows a
+ * {@link ReteRulesEngine} to share their evaluation between rules.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class FactCondition {
+
+    private final String factName;
+
+    private final Predicate<Object> predicate;
+
+    private FactCondition(final String factName, final Predicate<Object> predicate) {
+        this.factName = factName;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Create a condition testing a fact.
+     *
+     * @param factName name of the fact
+     * @param predicate to test the fact with
+     * @param <T> type of the fact
+     * @return a condition testing the fact
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FactCondition of(final String factName, final Predicate<? super T> predicate) {
+        return new FactCondition(factName, (Predicate<Object>) predicate);
+    }
+
+    public String getFactName() {
+        return factName;
+    }
+
+    /**
+     * Test the fact of this condition.
+     *
+     * @param facts to test
+     * @return true if the fact is present and satisfies the predicate
+     */
+    public boolean test(final Facts facts) {
+        Object fact = facts.get(factName);
+        return fact != null && predicate.test(fact);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FactCondition that = (FactCondition) o;
+        return factName.equals(that.factName) && predicate.equals(that.predicate);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * factName.hashCode() + predicate.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FactCondition {fact = '" + factName + "'}";
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Java Flight Recorder events emitted by engines: fires, rule evaluations, rule executions and rule failures.
+ *
+ * This class does nothing: it is used when the running JVM has no Flight Recorder (JDK 8 before 8u262).
+ * Otherwise, {@link #INSTANCE} is a {@link JfrEvents}, which is the only class referencing the
+ * {@code jdk.jfr} API and is thus loaded only when the API is available. Engines check whether an event
+ * type is enabled before doing anything for it, so that fires pay nothing when no recording enables them.
+ *
+ * Events are begun by a {@code begin} method returning an opaque event, and committed by the matching
+ * {@code commit} method.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+class FlightRecorderEvents {
+
+    private static final Logger LOGGER = Logger.getLogger(FlightRecorderEvents.class.getName());
+
+    static final FlightRecorderEvents INSTANCE = load();
+
+    boolean isFireEnabled() {
+        return false;
+    }
+
+    boolean isEvaluationEnabled() {
+        return false;
+    }
+
+    boolean isExecutionEnabled() {
+        return false;
+    }
+
+    Object beginFire() {
+        return null;
+    }
+
+    void commitFire(Object event, String engineName, int rules) {
+    }
+
+    Object beginEvaluation() {
+        return null;
+    }
+
+    /*
+     * Commit an evaluation event, flagged as failed with the class of the failure if the condition has thrown.
+     */
+    void commitEvaluation(Object event, String engineName, String ruleName, int priority, boolean evaluationResult,
+                          Throwable failure) {
+    }
+
+    Object beginExecution() {
+        return null;
+    }
+
+    /*
+     * Commit an execution event, and a failure event if the execution has failed.
+     */
+    void commitExecution(Object event, String engineName, String ruleName, int priority, Exception failure) {
+    }
+
+    private static FlightRecorderEvents load() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return (FlightRecorderEvents) Class.forName("org.jeasy.rules.core.JfrEvents").newInstance();
+        } catch (Exception | LinkageError e) {
+            LOGGER.log(Level.FINE, "Java Flight Recorder is not available, no event will be emitted", e);
+            return new FlightRecorderEvents();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.*;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checker of rules on facts changing between checks, evaluating again only the rules which may read
+ * a changed fact.
+ *
+ * The checker tracks changes of its facts with {@link Facts#trackChanges(Set)} and keeps the result of
+ * the previous check. On each check, only rules declaring a fact changed since the previous check and
+ * rules which may read any fact are evaluated again (see {@link CompiledRules#getRulesReading(String)}), other
+ * results are reused. Facts mutated in place are not tracked: they should be added again, or the checker
+ * invalidated with {@link #invalidate()}, for rules reading them to be evaluated again.
+ *
+ * Listeners of the engine are notified before evaluations like with {@link RulesEngine#check(Rules, Facts)},
+ * and a rule skipped by a listener is left out of the result and submitted again to listeners on next check.
+ * Conditions are evaluated by the engine, with its condition cache and metrics. A checker is not
+ * thread safe, and should be closed to stop tracking changes of its facts.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class IncrementalChecker implements AutoCloseable {
+
+    /*
+     * Engine evaluating conditions, so that its condition cache, metrics and events apply, null
+     * if the engine is not one of ours and conditions are evaluated directly.
+     */
+    private final AbstractRulesEngine engine;
+
+    private final CompiledRules rules;
+
+    private final Facts facts;
+
+    private final ListenerDispatcher listenerDispatcher;
+
+    private final Set<String> changes = new HashSet<>();
+
+    private final Map<Rule, Boolean> results = new HashMap<>();
+
+    private final Map<Rule, Boolean> resultsView = Collections.unmodifiableMap(results);
+
+    private final BitSet outdated;
+
+    /**
+     * Create a checker of rules on facts, notifying listeners of the engine before evaluations.
+     *
+     * @param engine whose listeners are notified before evaluations
+     * @param rules to check
+     * @param facts to check rules on
+     */
+    public IncrementalChecker(final RulesEngine engine, final Rules rules, final Facts facts) {
+        this.engine = engine instanceof AbstractRulesEngine ? (AbstractRulesEngine) engine : null;
+        this.rules = rules.compile();
+        this.facts = facts;
+        this.listenerDispatcher = ListenerDispatcher.compile(engine.getRuleListeners());
+        this.outdated = new BitSet(this.rules.size());
+        this.outdated.set(0, this.rules.size());
+        facts.trackChanges(changes);
+    }
+
+    /**
+     * Check rules, evaluating only rules which may read a fact changed since the previous check.
+     *
+     * @return an unmodifiable view of the result of evaluation of each rule, updated by next checks
+     */
+    public Map<Rule, Boolean> check() {
+        for (String change : changes) {
+            outdated.or(rules.getRulesReading(change));
+        }
+        changes.clear();
+        for (int i = outdated.nextSetBit(0); i >= 0; i = outdated.nextSetBit(i + 1)) {
+            Rule rule = rules.getRule(i);
+            if (listenerDispatcher.beforeEvaluate(rule, facts)) {
+                results.put(rule, evaluate(i));
+                outdated.clear(i);
+            } else {
+                // left outdated so that listeners are asked again on next check
+                results.remove(rule);
+            }
+        }
+        return resultsView;
+    }
+
+    private boolean evaluate(int index) {
+        return engine != null ? engine.evaluate(rules, index, facts) : rules.getRule(index).evaluate(facts);
+    }
+
+    /**
+     * Evaluate all rules again on next check.
+     */
+    public void invalidate() {
+        outdated.set(0, rules.size());
+    }
+
+    /**
+     * Stop tracking changes of facts.
+     */
+    @Override
+    public void close() {
+        facts.untrackChanges(changes);
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link RulesEngine} implementation applying rules by forward chaining until no rule is triggered.
+ *
+ * Rules to evaluate are kept in an agenda, which initially holds all rules. On each cycle, rules of
+ * the agenda are evaluated in their natural order and the first triggered rule is executed. Rules
+ * evaluated to false and the executed rule leave the agenda, while rules which may read a fact changed
+ * by the execution join it again (see {@link CompiledRules#getRulesReading(String)}). Only rules
+ * affected by changes are thus evaluated again. Fire stops when no rule of the agenda is triggered
+ * or when the maximum number of cycles is reached.
+ *
+ * Changes are tracked with {@link Facts#trackChanges(java.util.Set)}: actions must add or remove
+ * facts for their changes to be seen, facts mutated in place are not tracked. A rule which may read
+ * any fact (see {@link Rule#readsAnyFact()}) is affected by any change, and may thus
+ * be executed again until the maximum number of cycles.
+ *
+ * Rules with a priority over the threshold are not applied, and next rules are skipped after the
+ * first applied or failed rule when the corresponding parameters are set. Skipping rules after the
+ * first non triggered rule and parallel evaluation do not apply to this engine.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class InferenceRulesEngine extends AbstractRulesEngine {
+
+    public InferenceRulesEngine() {
+        super();
+    }
+
+    InferenceRulesEngine(final RulesEngineParameters parameters, final List<RuleListener> ruleListeners,
+                         final Executor evaluationExecutor, final Executor asyncExecutor,
+                         final EngineMetrics metrics, final ConditionCache conditionCache) {
+        super(parameters, ruleListeners, evaluationExecutor, asyncExecutor, metrics, conditionCache);
+    }
+
+    @Override
+    void apply(final CompiledRules rules, final Facts facts, boolean parallelEvaluation, BitSet applied) {
+
+        logger.info("Rules inference started");
+        final int candidates = countCandidates(rules);
+        BitSet agenda = new BitSet(candidates);
+        agenda.set(0, candidates);
+        chain(rules, facts, agenda, new Matcher() {
+            @Override
+            public boolean isTriggered(int index) {
+                return evaluate(rules, index, facts);
+            }
+
+            @Override
+            public void factChanged(String fact, BitSet agenda) {
+                agenda.or(rules.getRulesReading(fact));
+                agenda.clear(candidates, rules.size());
+            }
+        }, applied);
+    }
+
+}
@@ -0,0 +1,230 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@link FlightRecorderEvents} emitting Java Flight Recorder events. Loaded reflectively, see {@link FlightRecorderEvents}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class JfrEvents extends FlightRecorderEvents {
+
+    private final EventType fireType;
+
+    private final EventType evaluationType;
+
+    private final EventType executionType;
+
+    private final EventType failureType;
+
+    JfrEvents() {
+        FlightRecorder.register(FireEvent.class);
+        FlightRecorder.register(RuleEvaluationEvent.class);
+        FlightRecorder.register(RuleExecutionEvent.class);
+        FlightRecorder.register(RuleFailureEvent.class);
+        fireType = EventType.getEventType(FireEvent.class);
+        evaluationType = EventType.getEventType(RuleEvaluationEvent.class);
+        executionType = EventType.getEventType(RuleExecutionEvent.class);
+        failureType = EventType.getEventType(RuleFailureEvent.class);
+    }
+
+    @Override
+    boolean isFireEnabled() {
+        return fireType.isEnabled();
+    }
+
+    @Override
+    boolean isEvaluationEnabled() {
+        return evaluationType.isEnabled();
+    }
+
+    @Override
+    boolean isExecutionEnabled() {
+        return executionType.isEnabled() || failureType.isEnabled();
+    }
+
+    @Override
+    Object beginFire() {
+        FireEvent event = new FireEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void commitFire(Object event, String engineName, int rules) {
+        FireEvent fireEvent = (FireEvent) event;
+        fireEvent.end();
+        if (fireEvent.shouldCommit()) {
+            fireEvent.engine = engineName;
+            fireEvent.rules = rules;
+            fireEvent.commit();
+        }
+    }
+
+    @Override
+    Object beginEvaluation() {
+        RuleEvaluationEvent event = new RuleEvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void commitEvaluation(Object event, String engineName, String ruleName, int priority, boolean evaluationResult,
+                          Throwable failure) {
+        RuleEvaluationEvent evaluationEvent = (RuleEvaluationEvent) event;
+        evaluationEvent.end();
+        if (evaluationEvent.shouldCommit()) {
+            evaluationEvent.engine = engineName;
+            evaluationEvent.rule = ruleName;
+            evaluationEvent.priority = priority;
+            evaluationEvent.triggered = evaluationResult;
+            evaluationEvent.failed = failure != null;
+            evaluationEvent.exceptionClass = failure != null ? failure.getClass().getName() : null;
+            evaluationEvent.commit();
+        }
+    }
+
+    @Override
+    Object beginExecution() {
+        RuleExecutionEvent event = new RuleExecutionEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void commitExecution(Object event, String engineName, String ruleName, int priority, Exception failure) {
+        RuleExecutionEvent executionEvent = (RuleExecutionEvent) event;
+        executionEvent.end();
+        if (executionEvent.shouldCommit()) {
+            executionEvent.engine = engineName;
+            executionEvent.rule = ruleName;
+            executionEvent.priority = priority;
+            executionEvent.success = failure == null;
+            executionEvent.commit();
+        }
+        if (failure != null) {
+            RuleFailureEvent failureEvent = new RuleFailureEvent();
+            if (failureEvent.shouldCommit()) {
+                failureEvent.engine = engineName;
+                failureEvent.rule = ruleName;
+                failureEvent.priority = priority;
+                failureEvent.exceptionClass = failure.getClass().getName();
+                failureEvent.message = failure.getMessage();
+                failureEvent.commit();
+            }
+        }
+    }
+
+    @Name("org.jeasy.rules.Fire")
+    @Label("Fire")
+    @Category("Easy Rules")
+    @Description("Rules fired by an engine on facts")
+    @StackTrace(false)
+    static class FireEvent extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Rules")
+        int rules;
+    }
+
+    @Name("org.jeasy.rules.RuleEvaluation")
+    @Label("Rule Evaluation")
+    @Category("Easy Rules")
+    @Description("Evaluation of the condition of a rule")
+    @StackTrace(false)
+    static class RuleEvaluationEvent extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Rule")
+        String rule;
+
+        @Label("Priority")
+        int priority;
+
+        @Label("Triggered")
+        boolean triggered;
+
+        @Label("Failed")
+        boolean failed;
+
+        @Label("Exception Class")
+        String exceptionClass;
+    }
+
+    @Name("org.jeasy.rules.RuleExecution")
+    @Label("Rule Execution")
+    @Category("Easy Rules")
+    @Description("Execution of the actions of a rule")
+    @StackTrace(false)
+    static class RuleExecutionEvent extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Rule")
+        String rule;
+
+        @Label("Priority")
+        int priority;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("org.jeasy.rules.RuleFailure")
+    @Label("Rule Failure")
+    @Category("Easy Rules")
+    @Description("Exception thrown by the actions of a rule")
+    static class RuleFailureEvent extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Rule")
+        String rule;
+
+        @Label("Priority")
+        int priority;
+
+        @Label("Exception Class")
+        String exceptionClass;
+
+        @Label("Message")
+        String message;
+    }
+
+}
@@ -0,0 +1,246 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds, recorded without locking.
+ *
+ * Latencies are counted in log-linear buckets, like in HdrHistogram: each power of two is split in
+ * 16 sub-buckets, so that values reported for percentiles are within 1/16 (6.25%) of recorded values.
+ * Latencies over 2^36 nanoseconds (about 68 seconds) are counted in the last bucket. Recording
+ * increments a bucket with a single atomic operation. Like {@link LongAdder}, buckets are striped
+ * on contention: a thread failing to increment a bucket moves to its own array of buckets, chosen
+ * by thread, and arrays are merged when reading. Histograms recorded by a single thread keep one array.
+ *
+ * Reading and resetting a histogram being recorded concurrently is not atomic: a snapshot may miss
+ * latencies recorded meanwhile, which is acceptable for monitoring.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_EXPONENT = 36;
+
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    /*
+     * Up to one array of buckets per processor, each taking about 4 KB, allocated on contention only.
+     */
+    private static final int STRIPES = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), 16);
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Create a histogram striped on up to one array of buckets per processor.
+     */
+    public LatencyHistogram() {
+        this(STRIPES);
+    }
+
+    LatencyHistogram(final int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("The number of stripes must be a power of two");
+        }
+        this.stripes = new AtomicReferenceArray<>(stripes);
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds, negative values are counted as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        increment(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Return the number of recorded latencies.
+     *
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Return the highest recorded latency.
+     *
+     * @return the highest recorded latency in nanoseconds, 0 if none has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Return the mean of recorded latencies.
+     *
+     * @return the mean latency in nanoseconds, 0 if none has been recorded
+     */
+    public double getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : (double) sum.sum() / recorded;
+    }
+
+    /**
+     * Return the latency under which the given percentage of recorded latencies are.
+     *
+     * @param percentile between 0 and 100, for example 99 for the 99th percentile
+     * @return the latency at the percentile in nanoseconds, 0 if none has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] counts = counts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Return a copy of this histogram, which is not changed by latencies recorded afterwards.
+     *
+     * @return a copy of this histogram
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram snapshot = new LatencyHistogram(1);
+        long[] counts = counts();
+        AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets.set(bucket, counts[bucket]);
+        }
+        snapshot.stripes.set(0, buckets);
+        snapshot.count.add(count.sum());
+        snapshot.sum.add(sum.sum());
+        snapshot.max.set(max.get());
+        return snapshot;
+    }
+
+    /**
+     * Forget recorded latencies.
+     */
+    public void reset() {
+        for (int stripe = 0; stripe < stripes.length(); stripe++) {
+            AtomicLongArray buckets = stripes.get(stripe);
+            if (buckets != null) {
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    buckets.set(bucket, 0);
+                }
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private void increment(int bucket) {
+        AtomicLongArray buckets = stripes.get(0);
+        if (buckets == null) {
+            buckets = stripe(0);
+        }
+        long current = buckets.get(bucket);
+        if (buckets.compareAndSet(bucket, current, current + 1)) {
+            return;
+        }
+        // contended, move to the stripe of the current thread
+        int stripe = (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32) & (stripes.length() - 1);
+        buckets = stripes.get(stripe);
+        if (buckets == null) {
+            buckets = stripe(stripe);
+        }
+        buckets.getAndIncrement(bucket);
+    }
+
+    private AtomicLongArray stripe(int stripe) {
+        stripes.compareAndSet(stripe, null, new AtomicLongArray(BUCKETS));
+        return stripes.get(stripe);
+    }
+
+    private long[] counts() {
+        long[] counts = new long[BUCKETS];
+        for (int stripe = 0; stripe < stripes.length(); stripe++) {
+            AtomicLongArray buckets = stripes.get(stripe);
+            if (buckets != null) {
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    counts[bucket] += buckets.get(bucket);
+                }
+            }
+        }
+        return counts;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+}
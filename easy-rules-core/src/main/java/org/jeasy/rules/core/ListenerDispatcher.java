@@ -0,0 +1,171 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+
+import java.util.List;
+
+/**
+ * Dispatcher of rule events to the listeners of an engine, compiled once when the engine is created.
+ *
+ * Engines without listeners use a dispatcher doing nothing, and engines with a single listener
+ * call it directly, so that only engines with several listeners iterate over them.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+abstract class ListenerDispatcher {
+
+    private static final ListenerDispatcher NO_LISTENER = new ListenerDispatcher() {
+
+        @Override
+        boolean beforeEvaluate(Rule rule, Facts facts) {
+            return true;
+        }
+
+        @Override
+        void afterEvaluate(Rule rule, boolean evaluationResult) {
+        }
+
+        @Override
+        void beforeExecute(Rule rule, Facts facts) {
+        }
+
+        @Override
+        void onSuccess(Rule rule, Facts facts) {
+        }
+
+        @Override
+        void onFailure(Rule rule, Exception exception, Facts facts) {
+        }
+    };
+
+    static ListenerDispatcher compile(List<RuleListener> ruleListeners) {
+        switch (ruleListeners.size()) {
+            case 0:
+                return NO_LISTENER;
+            case 1:
+                return new SingleListenerDispatcher(ruleListeners.get(0));
+            default:
+                return new ListenersDispatcher(ruleListeners.toArray(new RuleListener[0]));
+        }
+    }
+
+    /*
+     * Return false as soon as a listener vetoes the evaluation of the rule.
+     */
+    abstract boolean beforeEvaluate(Rule rule, Facts facts);
+
+    abstract void afterEvaluate(Rule rule, boolean evaluationResult);
+
+    abstract void beforeExecute(Rule rule, Facts facts);
+
+    abstract void onSuccess(Rule rule, Facts facts);
+
+    abstract void onFailure(Rule rule, Exception exception, Facts facts);
+
+    private static final class SingleListenerDispatcher extends ListenerDispatcher {
+
+        private final RuleListener ruleListener;
+
+        SingleListenerDispatcher(final RuleListener ruleListener) {
+            this.ruleListener = ruleListener;
+        }
+
+        @Override
+        boolean beforeEvaluate(Rule rule, Facts facts) {
+            return ruleListener.beforeEvaluate(rule, facts);
+        }
+
+        @Override
+        void afterEvaluate(Rule rule, boolean evaluationResult) {
+            ruleListener.afterEvaluate(rule, evaluationResult);
+        }
+
+        @Override
+        void beforeExecute(Rule rule, Facts facts) {
+            ruleListener.beforeExecute(rule, facts);
+        }
+
+        @Override
+        void onSuccess(Rule rule, Facts facts) {
+            ruleListener.onSuccess(rule, facts);
+        }
+
+        @Override
+        void onFailure(Rule rule, Exception exception, Facts facts) {
+            ruleListener.onFailure(rule, exception, facts);
+        }
+    }
+
+    private static final class ListenersDispatcher extends ListenerDispatcher {
+
+        private final RuleListener[] ruleListeners;
+
+        ListenersDispatcher(final RuleListener[] ruleListeners) {
+            this.ruleListeners = ruleListeners;
+        }
+
+        @Override
+        boolean beforeEvaluate(Rule rule, Facts facts) {
+            for (RuleListener ruleListener : ruleListeners) {
+                if (!ruleListener.beforeEvaluate(rule, facts)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void afterEvaluate(Rule rule, boolean evaluationResult) {
+            for (RuleListener ruleListener : ruleListeners) {
+                ruleListener.afterEvaluate(rule, evaluationResult);
+            }
+        }
+
+        @Override
+        void beforeExecute(Rule rule, Facts facts) {
+            for (RuleListener ruleListener : ruleListeners) {
+                ruleListener.beforeExecute(rule, facts);
+            }
+        }
+
+        @Override
+        void onSuccess(Rule rule, Facts facts) {
+            for (RuleListener ruleListener : ruleListeners) {
+                ruleListener.onSuccess(rule, facts);
+            }
+        }
+
+        @Override
+        void onFailure(Rule rule, Exception exception, Facts facts) {
+            for (RuleListener ruleListener : ruleListeners) {
+                ruleListener.onFailure(rule, exception, facts);
+            }
+        }
+    }
+
+}
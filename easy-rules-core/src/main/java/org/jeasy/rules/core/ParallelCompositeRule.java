@@ -0,0 +1,347 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Composite rule evaluating conditions of its composing rules concurrently, triggered according to
+ * its {@link Semantics}: if <strong>ALL</strong>, <strong>ANY</strong> or exactly <strong>ONE</strong>
+ * of the conditions are satisfied.
+ *
+ * Conditions of composing rules are evaluated in an executor, the common fork join pool by default,
+ * and the evaluation of the composite rule returns as soon as its result is decided: evaluations
+ * not started yet are cancelled and threads of running evaluations are interrupted. Composing rules
+ * with independent, latency bound conditions should be composed this way, their conditions must be
+ * safe to evaluate concurrently on the same facts. If the condition of a composing rule throws an
+ * exception before the result is decided, other evaluations are cancelled and the exception is
+ * thrown again by the evaluation of the composite rule, wrapped in a {@link RuntimeException} if it is
+ * a checked exception.
+ *
+ * When a parallel composite rule is applied, actions of <strong>ALL</strong> composing rules are
+ * performed in their natural order, like with a {@link CompositeRule}: results of evaluations are
+ * not kept for the execution since the rule may be evaluated concurrently on different facts.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ParallelCompositeRule extends CompositeRule {
+
+    /**
+     * How the result of a parallel composite rule is decided from the conditions of its composing rules.
+     */
+    public enum Semantics {
+
+        /**
+         * Triggered if all conditions are satisfied: false as soon as a condition is false.
+         */
+        ALL {
+            @Override
+            Boolean decide(int trueCount, int falseCount, int count) {
+                if (falseCount > 0) {
+                    return false;
+                }
+                return trueCount == count ? Boolean.TRUE : null;
+            }
+        },
+
+        /**
+         * Triggered if any condition is satisfied: true as soon as a condition is true.
+         */
+        ANY {
+            @Override
+            Boolean decide(int trueCount, int falseCount, int count) {
+                if (trueCount > 0) {
+                    return true;
+                }
+                return falseCount == count ? Boolean.FALSE : null;
+            }
+        },
+
+        /**
+         * Triggered if exactly one condition is satisfied: false as soon as a second condition is true.
+         */
+        ONE {
+            @Override
+            Boolean decide(int trueCount, int falseCount, int count) {
+                if (trueCount > 1) {
+                    return false;
+                }
+                return trueCount + falseCount == count ? trueCount == 1 : null;
+            }
+        };
+
+        /*
+         * Decide the result given the numbers of conditions evaluated to true and to false, null if undecided.
+         * The result must be decided once all conditions are evaluated.
+         */
+        abstract Boolean decide(int trueCount, int falseCount, int count);
+    }
+
+    private final Semantics semantics;
+
+    private final Executor executor;
+
+    /**
+     * Create a new {@link ParallelCompositeRule} evaluating conditions in the common fork join pool.
+     *
+     * @param semantics of the rule
+     */
+    public ParallelCompositeRule(final Semantics semantics) {
+        this(Rule.DEFAULT_NAME, semantics);
+    }
+
+    /**
+     * Create a new {@link ParallelCompositeRule} evaluating conditions in the common fork join pool.
+     *
+     * @param name rule name
+     * @param semantics of the rule
+     */
+    public ParallelCompositeRule(final String name, final Semantics semantics) {
+        this(name, Rule.DEFAULT_DESCRIPTION, Rule.DEFAULT_PRIORITY, semantics);
+    }
+
+    /**
+     * Create a new {@link ParallelCompositeRule} evaluating conditions in the common fork join pool.
+     *
+     * @param name rule name
+     * @param description rule description
+     * @param priority rule priority
+     * @param semantics of the rule
+     */
+    public ParallelCompositeRule(final String name, final String description, final int priority, final Semantics semantics) {
+        this(name, description, priority, semantics, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new {@link ParallelCompositeRule}.
+     *
+     * @param name rule name
+     * @param description rule description
+     * @param priority rule priority
+     * @param semantics of the rule
+     * @param executor in which conditions of composing rules are evaluated
+     */
+    public ParallelCompositeRule(final String name, final String description, final int priority,
+                                 final Semantics semantics, final Executor executor) {
+        super(name, description, priority);
+        if (semantics == null) {
+            throw new IllegalArgumentException("Semantics must not be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        this.semantics = semantics;
+        this.executor = executor;
+    }
+
+    /**
+     * Get the semantics of the rule.
+     *
+     * @return how the result of the rule is decided
+     */
+    public Semantics getSemantics() {
+        return semantics;
+    }
+
+    /**
+     * Evaluate conditions of composing rules concurrently until the result is decided.
+     * @return the result decided by the semantics of the composite rule, false if no rule is composed
+     */
+    @Override
+    public boolean evaluate(Facts facts) {
+        Rule[] composingRules = rules.toArray(new Rule[0]);
+        if (composingRules.length == 0) {
+            return false;
+        }
+        if (composingRules.length == 1) {
+            boolean result = composingRules[0].evaluate(facts);
+            return semantics.decide(result ? 1 : 0, result ? 0 : 1, 1);
+        }
+        Evaluation evaluation = new Evaluation(composingRules, facts);
+        try {
+            for (ConditionEvaluation conditionEvaluation : evaluation.conditionEvaluations) {
+                executor.execute(conditionEvaluation);
+            }
+            ForkJoinPool.managedBlock(evaluation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while evaluating composing rules of rule '" + getName() + "'");
+        } finally {
+            evaluation.cancel();
+        }
+        return evaluation.getResult();
+    }
+
+    /*
+     * The concurrent evaluation of the composing rules on facts, decided under its own lock.
+     */
+    private final class Evaluation implements ForkJoinPool.ManagedBlocker {
+
+        private final ConditionEvaluation[] conditionEvaluations;
+
+        private int trueCount;
+
+        private int falseCount;
+
+        private Boolean result;
+
+        private Throwable failure;
+
+        private boolean decided;
+
+        Evaluation(final Rule[] composingRules, final Facts facts) {
+            this.conditionEvaluations = new ConditionEvaluation[composingRules.length];
+            for (int i = 0; i < composingRules.length; i++) {
+                conditionEvaluations[i] = new ConditionEvaluation(this, composingRules[i], facts);
+            }
+        }
+
+        synchronized void onResult(boolean conditionResult) {
+            if (decided) {
+                return;
+            }
+            if (conditionResult) {
+                trueCount++;
+            } else {
+                falseCount++;
+            }
+            result = semantics.decide(trueCount, falseCount, conditionEvaluations.length);
+            if (result != null) {
+                decided = true;
+                notifyAll();
+            }
+        }
+
+        synchronized void onFailure(Throwable throwable) {
+            if (decided) {
+                return;
+            }
+            failure = throwable;
+            decided = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized boolean block() throws InterruptedException {
+            while (!decided) {
+                wait();
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized boolean isReleasable() {
+            return decided;
+        }
+
+        void cancel() {
+            for (ConditionEvaluation conditionEvaluation : conditionEvaluations) {
+                conditionEvaluation.cancel();
+            }
+        }
+
+        synchronized boolean getResult() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                // a checked exception thrown by a condition, for instance through a proxy
+                throw new RuntimeException(failure);
+            }
+            return result;
+        }
+    }
+
+    /*
+     * The evaluation of the condition of a composing rule, which interrupts its thread when cancelled while
+     * running and clears the interrupt status before the thread is given back to the executor.
+     */
+    private static final class ConditionEvaluation implements Runnable {
+
+        private static final int NEW = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int DONE = 2;
+
+        private final Evaluation evaluation;
+
+        private final Rule rule;
+
+        private final Facts facts;
+
+        private int state = NEW;
+
+        private Thread runner;
+
+        private boolean interrupted;
+
+        ConditionEvaluation(final Evaluation evaluation, final Rule rule, final Facts facts) {
+            this.evaluation = evaluation;
+            this.rule = rule;
+            this.facts = facts;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (state != NEW) {
+                    return;
+                }
+                state = RUNNING;
+                runner = Thread.currentThread();
+            }
+            try {
+                evaluation.onResult(rule.evaluate(facts));
+            } catch (Throwable throwable) {
+                evaluation.onFailure(throwable);
+            } finally {
+                synchronized (this) {
+                    state = DONE;
+                    runner = null;
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            if (state == NEW) {
+                state = DONE;
+            } else if (state == RUNNING && !interrupted) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+    }
+}
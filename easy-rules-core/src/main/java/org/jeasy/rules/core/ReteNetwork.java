@@ -0,0 +1,135 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Rule;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Matching network of compiled rules used by {@link ReteRulesEngine}.
+ *
+ * Each distinct {@link FactCondition} of declarative rules is an alpha node shared by the rules
+ * having it, and a declarative rule matches when all its alpha nodes match. Other rules are opaque:
+ * they are evaluated as a whole, when a fact they may read changes.
+ *
+ * The network depends only on the rules, so that it is built once per {@link CompiledRules}
+ * (see {@link #of(CompiledRules)}) and shared by fires of any engine whatever its priority threshold.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class ReteNetwork {
+
+    private static final Function<CompiledRules, ReteNetwork> FACTORY = new Function<CompiledRules, ReteNetwork>() {
+        @Override
+        public ReteNetwork apply(CompiledRules rules) {
+            return new ReteNetwork(rules);
+        }
+    };
+
+    final FactCondition[] alphaNodes;
+
+    /*
+     * Indexes of rules having each alpha node.
+     */
+    final int[][] alphaRules;
+
+    /*
+     * Indexes of alpha nodes testing each fact.
+     */
+    final Map<String, int[]> alphaNodesByFact;
+
+    /*
+     * Number of distinct alpha nodes of each declarative rule.
+     */
+    final int[] requiredMatches;
+
+    final BitSet opaqueRules;
+
+    private ReteNetwork(final CompiledRules rules) {
+        requiredMatches = new int[rules.size()];
+        opaqueRules = new BitSet(rules.size());
+        Map<FactCondition, List<Integer>> rulesByCondition = new LinkedHashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.getRule(i);
+            if (!(rule instanceof DeclarativeRule)) {
+                opaqueRules.set(i);
+                continue;
+            }
+            for (FactCondition condition : ((DeclarativeRule) rule).getConditions()) {
+                List<Integer> conditionRules = rulesByCondition.get(condition);
+                if (conditionRules == null) {
+                    conditionRules = new ArrayList<>();
+                    rulesByCondition.put(condition, conditionRules);
+                }
+                if (!conditionRules.contains(i)) {
+                    conditionRules.add(i);
+                    requiredMatches[i]++;
+                }
+            }
+        }
+        alphaNodes = rulesByCondition.keySet().toArray(new FactCondition[0]);
+        alphaRules = new int[alphaNodes.length][];
+        Map<String, List<Integer>> nodesByFact = new HashMap<>();
+        for (int node = 0; node < alphaNodes.length; node++) {
+            List<Integer> conditionRules = rulesByCondition.get(alphaNodes[node]);
+            alphaRules[node] = new int[conditionRules.size()];
+            for (int j = 0; j < alphaRules[node].length; j++) {
+                alphaRules[node][j] = conditionRules.get(j);
+            }
+            List<Integer> factNodes = nodesByFact.get(alphaNodes[node].getFactName());
+            if (factNodes == null) {
+                factNodes = new ArrayList<>();
+                nodesByFact.put(alphaNodes[node].getFactName(), factNodes);
+            }
+            factNodes.add(node);
+        }
+        alphaNodesByFact = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : nodesByFact.entrySet()) {
+            int[] nodes = new int[entry.getValue().size()];
+            for (int j = 0; j < nodes.length; j++) {
+                nodes[j] = entry.getValue().get(j);
+            }
+            alphaNodesByFact.put(entry.getKey(), nodes);
+        }
+    }
+
+    /**
+     * Get the network of compiled rules, built on first use and kept along with the rules.
+     *
+     * @param rules of the network
+     * @return the network of the rules
+     */
+    static ReteNetwork of(final CompiledRules rules) {
+        return rules.getDerivedState(ReteNetwork.class, FACTORY);
+    }
+
+}
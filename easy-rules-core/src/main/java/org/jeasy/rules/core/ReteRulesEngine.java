@@ -0,0 +1,127 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link RulesEngine} implementation applying rules by forward chaining like {@link InferenceRulesEngine},
+ * matching {@link DeclarativeRule}s with a Rete-style network instead of evaluating their conditions.
+ *
+ * The conditions of declarative rules are compiled once per {@link CompiledRules} into shared alpha
+ * nodes, each testing a single fact (see {@link ReteNetwork}), kept along with the compiled rules.
+ * On fire, each alpha node is tested once whatever the number of rules having it, and the engine keeps
+ * the number of matched nodes of each rule.
+ * When an action changes a fact, only the alpha nodes testing this fact are tested again and the change
+ * is propagated to the rules having them. Since facts are named and unique, joins between conditions on
+ * different facts reduce to counting matched nodes, so there are no beta memories.
+ *
+ * Other rules are opaque to the network: they are evaluated as a whole, initially and then when a fact
+ * they may read changes, like with an {@link InferenceRulesEngine}. Listeners are notified for declarative
+ * rules as if they were evaluated, and actions are executed as usual.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class ReteRulesEngine extends AbstractRulesEngine {
+
+    public ReteRulesEngine() {
+        super();
+    }
+
+    ReteRulesEngine(final RulesEngineParameters parameters, final List<RuleListener> ruleListeners,
+                    final Executor evaluationExecutor, final Executor asyncExecutor,
+                    final EngineMetrics metrics, final ConditionCache conditionCache) {
+        super(parameters, ruleListeners, evaluationExecutor, asyncExecutor, metrics, conditionCache);
+    }
+
+    @Override
+    void apply(final CompiledRules rules, final Facts facts, boolean parallelEvaluation, BitSet applied) {
+
+        logger.info("Rules matching started");
+        final ReteNetwork network = ReteNetwork.of(rules);
+        final int candidates = countCandidates(rules);
+        final boolean[] matchedNodes = new boolean[network.alphaNodes.length];
+        final int[] matches = new int[rules.size()];
+        for (int node = 0; node < matchedNodes.length; node++) {
+            if (network.alphaNodes[node].test(facts)) {
+                matchedNodes[node] = true;
+                for (int rule : network.alphaRules[node]) {
+                    matches[rule]++;
+                }
+            }
+        }
+        BitSet agenda = (BitSet) network.opaqueRules.clone();
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (!network.opaqueRules.get(rule) && matches[rule] == network.requiredMatches[rule]) {
+                agenda.set(rule);
+            }
+        }
+        agenda.clear(candidates, rules.size());
+        chain(rules, facts, agenda, new Matcher() {
+            @Override
+            public boolean isTriggered(int index) {
+                return !network.opaqueRules.get(index) || evaluate(rules, index, facts);
+            }
+
+            @Override
+            public void factChanged(String fact, BitSet agenda) {
+                propagate(rules, network, fact, facts, matchedNodes, matches, agenda);
+                agenda.clear(candidates, rules.size());
+            }
+        }, applied);
+    }
+
+    /*
+     * Test again alpha nodes of a changed fact, then put back in the agenda declarative rules
+     * having these nodes and matching all their nodes, as well as opaque rules which may read the fact.
+     */
+    private void propagate(CompiledRules rules, ReteNetwork network, String fact, Facts facts,
+                           boolean[] matchedNodes, int[] matches, BitSet agenda) {
+        int[] nodes = network.alphaNodesByFact.get(fact);
+        if (nodes != null) {
+            for (int node : nodes) {
+                boolean matched = network.alphaNodes[node].test(facts);
+                if (matched != matchedNodes[node]) {
+                    matchedNodes[node] = matched;
+                    for (int rule : network.alphaRules[node]) {
+                        matches[rule] += matched ? 1 : -1;
+                    }
+                }
+            }
+            for (int node : nodes) {
+                for (int rule : network.alphaRules[node]) {
+                    agenda.set(rule, matches[rule] == network.requiredMatches[rule]);
+                }
+            }
+        }
+        BitSet readers = rules.getRulesReading(fact);
+        readers.and(network.opaqueRules);
+        agenda.or(readers);
+    }
+
+}
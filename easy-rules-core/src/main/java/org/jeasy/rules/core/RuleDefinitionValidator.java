@@ -38,74 +38,99 @@ import static java.lang.String.format;
 /**
  * Validate that an annotated rule object is well defined.
  *
+ * Validation results are cached per rule class, so validating many rules of the same class
+ * costs a single validation.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 class RuleDefinitionValidator {
 
+    /*
+     * The validation error message of each rule class, null if the rule class is well defined.
+     */
+    private final ClassValue<String> validationErrors = new ClassValue<String>() {
+        @Override
+        protected String computeValue(final Class<?> type) {
+            try {
+                checkRuleClass(type);
+                checkConditionMethod(type);
+                checkActionMethods(type);
+                checkPriorityMethod(type);
+                return null;
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+        }
+    };
+
     void validateRuleDefinition(final Object rule) {
-        checkRuleClass(rule);
-        checkConditionMethod(rule);
-        checkActionMethods(rule);
-        checkPriorityMethod(rule);
+        String validationError = validationErrors.get(rule.getClass());
+        if (validationError != null) {
+            throw new IllegalArgumentException(validationError);
+        }
     }
 
-    private void checkRuleClass(final Object rule) {
-        if (!isRuleClassWellDefined(rule)) {
-            throw new IllegalArgumentException(format("Rule '%s' is not annotated with '%s'", rule.getClass().getName(), Rule.class.getName()));
+    private void checkRuleClass(final Class<?> ruleClass) {
+        if (!isRuleClassWellDefined(ruleClass)) {
+            throw new IllegalArgumentException(format("Rule '%s' is not annotated with '%s'", ruleClass.getName(), Rule.class.getName()));
         }
     }
 
-    private void checkConditionMethod(final Object rule) {
-        List<Method> conditionMethods = getMethodsAnnotatedWith(Condition.class, rule);
+    private void checkConditionMethod(final Class<?> ruleClass) {
+        List<Method> conditionMethods = getMethodsAnnotatedWith(Condition.class, ruleClass);
         if (conditionMethods.isEmpty()) {
-            throw new IllegalArgumentException(format("Rule '%s' must have a public method annotated with '%s'", rule.getClass().getName(), Condition.class.getName()));
+            throw new IllegalArgumentException(format("Rule '%s' must have a public method annotated with '%s'", ruleClass.getName(), Condition.class.getName()));
         }
 
         if (conditionMethods.size() > 1) {
-            throw new IllegalArgumentException(format("Rule '%s' must have exactly one method annotated with '%s'", rule.getClass().getName(), Condition.class.getName()));
+            throw new IllegalArgumentException(format("Rule '%s' must have exactly one method annotated with '%s'", ruleClass.getName(), Condition.class.getName()));
         }
 
         Method conditionMethod = conditionMethods.get(0);
 
         if (!isConditionMethodWellDefined(conditionMethod)) {
-            throw new IllegalArgumentException(format("Condition method '%s' defined in rule '%s' must be public, may have parameters annotated with @Fact (and/or a parameter of type Facts) and return boolean type.", conditionMethod, rule.getClass().getName()));
+            throw new IllegalArgumentException(format("Condition method '%s' defined in rule '%s' must be public, may have parameters annotated with @Fact (and/or a parameter of type Facts) and return boolean type.", conditionMethod, ruleClass.getName()));
+        }
+
+        if (conditionMethod.isAnnotationPresent(Deterministic.class) && !hasOnlyFactParameters(conditionMethod)) {
+            throw new IllegalArgumentException(format("Deterministic condition method '%s' defined in rule '%s' must only have parameters annotated with @Fact.", conditionMethod, ruleClass.getName()));
         }
     }
 
-    private void checkActionMethods(final Object rule) {
-        List<Method> actionMethods = getMethodsAnnotatedWith(Action.class, rule);
+    private void checkActionMethods(final Class<?> ruleClass) {
+        List<Method> actionMethods = getMethodsAnnotatedWith(Action.class, ruleClass);
         if (actionMethods.isEmpty()) {
-            throw new IllegalArgumentException(format("Rule '%s' must have at least one public method annotated with '%s'", rule.getClass().getName(), Action.class.getName()));
+            throw new IllegalArgumentException(format("Rule '%s' must have at least one public method annotated with '%s'", ruleClass.getName(), Action.class.getName()));
         }
 
         for (Method actionMethod : actionMethods) {
             if (!isActionMethodWellDefined(actionMethod)) {
-                throw new IllegalArgumentException(format("Action method '%s' defined in rule '%s' must be public and may have parameters annotated with @Fact (and/or a parameter of type Facts).", actionMethod, rule.getClass().getName()));
+                throw new IllegalArgumentException(format("Action method '%s' defined in rule '%s' must be public and may have parameters annotated with @Fact (and/or a parameter of type Facts).", actionMethod, ruleClass.getName()));
             }
         }
     }
 
-    private void checkPriorityMethod(final Object rule) {
+    private void checkPriorityMethod(final Class<?> ruleClass) {
 
-        List<Method> priorityMethods = getMethodsAnnotatedWith(Priority.class, rule);
+        List<Method> priorityMethods = getMethodsAnnotatedWith(Priority.class, ruleClass);
 
         if (priorityMethods.isEmpty()) {
             return;
         }
 
         if (priorityMethods.size() > 1) {
-            throw new IllegalArgumentException(format("Rule '%s' must have exactly one method annotated with '%s'", rule.getClass().getName(), Priority.class.getName()));
+            throw new IllegalArgumentException(format("Rule '%s' must have exactly one method annotated with '%s'", ruleClass.getName(), Priority.class.getName()));
         }
 
         Method priorityMethod = priorityMethods.get(0);
 
         if (!isPriorityMethodWellDefined(priorityMethod)) {
-            throw new IllegalArgumentException(format("Priority method '%s' defined in rule '%s' must be public, have no parameters and return integer type.", priorityMethod, rule.getClass().getName()));
+            throw new IllegalArgumentException(format("Priority method '%s' defined in rule '%s' must be public, have no parameters and return integer type.", priorityMethod, ruleClass.getName()));
         }
     }
 
-    private boolean isRuleClassWellDefined(final Object rule) {
-        return Utils.isAnnotationPresent(Rule.class, rule.getClass());
+    private boolean isRuleClassWellDefined(final Class<?> ruleClass) {
+        return Utils.isAnnotationPresent(Rule.class, ruleClass);
     }
 
     private boolean isConditionMethodWellDefined(final Method method) {
@@ -131,6 +156,15 @@ class RuleDefinitionValidator {
         return true;
     }
 
+    private boolean hasOnlyFactParameters(final Method method) {
+        for (Parameter parameter : method.getParameters()) {
+            if (parameter.getAnnotation(Fact.class) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean isActionMethodWellDefined(final Method method) {
         Parameter[] parameters = method.getParameters();
         return Modifier.isPublic(method.getModifiers())
@@ -143,8 +177,8 @@ class RuleDefinitionValidator {
                 && method.getParameterTypes().length == 0;
     }
 
-    private List<Method> getMethodsAnnotatedWith(final Class<? extends Annotation> annotation, final Object rule) {
-        Method[] methods = getMethods(rule);
+    private List<Method> getMethodsAnnotatedWith(final Class<? extends Annotation> annotation, final Class<?> ruleClass) {
+        Method[] methods = getMethods(ruleClass);
         List<Method> annotatedMethods = new ArrayList<>();
         for (Method method : methods) {
             if (method.isAnnotationPresent(annotation)) {
@@ -154,8 +188,8 @@ class RuleDefinitionValidator {
         return annotatedMethods;
     }
 
-    private Method[] getMethods(final Object rule) {
-        return rule.getClass().getMethods();
+    private Method[] getMethods(final Class<?> ruleClass) {
+        return ruleClass.getMethods();
     }
 
 }
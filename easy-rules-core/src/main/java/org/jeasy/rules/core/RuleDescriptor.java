@@ -0,0 +1,210 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Deterministic;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.Rule;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Reflective metadata of an annotated rule class.
+ *
+ * Descriptors are computed once per class and shared by all proxies of rules of that class.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class RuleDescriptor {
+
+    private static final ClassValue<RuleDescriptor> DESCRIPTORS = new ClassValue<RuleDescriptor>() {
+        @Override
+        protected RuleDescriptor computeValue(final Class<?> type) {
+            return new RuleDescriptor(type);
+        }
+    };
+
+    private final String name;
+
+    private final String description;
+
+    private final RuleMethod conditionMethod;
+
+    private final List<RuleMethod> actionMethods;
+
+    private final Set<String> factNames;
+
+    private final Set<String> conditionFactNames;
+
+    private final boolean readingAnyFact;
+
+    private final boolean deterministic;
+
+    /*
+     * Method handle of type (Object)int, or null if the rule has no priority method.
+     */
+    private final MethodHandle priorityHandle;
+
+    /*
+     * Method handle of type (Object, Object)int, or null if the rule has no compareTo method.
+     */
+    private final MethodHandle compareToHandle;
+
+    private RuleDescriptor(final Class<?> ruleClass) {
+        Method condition = null;
+        Method priority = null;
+        Method compareTo = null;
+        Set<ActionMethodOrderBean> actionMethodBeans = new TreeSet<>();
+        for (Method method : ruleClass.getMethods()) {
+            if (condition == null && method.isAnnotationPresent(Condition.class)) {
+                condition = method;
+            }
+            if (method.isAnnotationPresent(Action.class)) {
+                int order = method.getAnnotation(Action.class).order();
+                actionMethodBeans.add(new ActionMethodOrderBean(method, order));
+            }
+            if (priority == null && method.isAnnotationPresent(Priority.class)) {
+                priority = method;
+            }
+            if (compareTo == null && method.getName().equals("compareTo")) {
+                compareTo = method;
+            }
+        }
+        List<RuleMethod> actions = new ArrayList<>();
+        for (ActionMethodOrderBean actionMethodBean : actionMethodBeans) {
+            actions.add(new RuleMethod(actionMethodBean.getMethod()));
+        }
+        this.conditionMethod = condition != null ? new RuleMethod(condition) : null;
+        this.actionMethods = Collections.unmodifiableList(actions);
+        Set<String> names = new LinkedHashSet<>();
+        if (conditionMethod != null) {
+            conditionMethod.addFactNames(names);
+        }
+        this.conditionFactNames = Collections.unmodifiableSet(new LinkedHashSet<>(names));
+        for (RuleMethod actionMethod : actionMethods) {
+            actionMethod.addFactNames(names);
+        }
+        this.factNames = Collections.unmodifiableSet(names);
+        // a condition taking the Facts parameter may read facts it does not declare
+        this.readingAnyFact = names.isEmpty() || conditionMethod != null && conditionMethod.hasFactsParameter();
+        this.deterministic = condition != null && condition.isAnnotationPresent(Deterministic.class);
+        this.priorityHandle = priority != null ?
+                Utils.unreflect(priority).asType(methodType(int.class, Object.class)) : null;
+        this.compareToHandle = compareTo != null ?
+                Utils.unreflect(compareTo).asType(methodType(int.class, Object.class, Object.class)) : null;
+
+        org.jeasy.rules.annotation.Rule rule = Utils.findAnnotation(org.jeasy.rules.annotation.Rule.class, ruleClass);
+        this.name = rule.name().equals(Rule.DEFAULT_NAME) ? ruleClass.getSimpleName() : rule.name();
+        this.description = rule.description().equals(Rule.DEFAULT_DESCRIPTION) ? getDefaultDescription() : rule.description();
+    }
+
+    /**
+     * Get the descriptor of an annotated rule class.
+     *
+     * @param ruleClass a class annotated with {@link org.jeasy.rules.annotation.Rule} and validated upfront
+     * @return the (cached) descriptor of the class
+     */
+    static RuleDescriptor of(final Class<?> ruleClass) {
+        return DESCRIPTORS.get(ruleClass);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    RuleMethod getConditionMethod() {
+        return conditionMethod;
+    }
+
+    List<RuleMethod> getActionMethods() {
+        return actionMethods;
+    }
+
+    Set<String> getFactNames() {
+        return factNames;
+    }
+
+    Set<String> getConditionFactNames() {
+        return conditionFactNames;
+    }
+
+    boolean readsAnyFact() {
+        return readingAnyFact;
+    }
+
+    boolean isDeterministic() {
+        return deterministic;
+    }
+
+    boolean hasPriorityMethod() {
+        return priorityHandle != null;
+    }
+
+    int invokePriorityMethod(final Object target) throws Throwable {
+        return (int) priorityHandle.invokeExact(target);
+    }
+
+    boolean hasCompareToMethod() {
+        return compareToHandle != null;
+    }
+
+    int invokeCompareToMethod(final Object target, final Object other) throws Throwable {
+        return (int) compareToHandle.invokeExact(target, other);
+    }
+
+    private String getDefaultDescription() {
+        // Default description = "when " + conditionMethodName + " then " + comma separated actionMethodsNames
+        StringBuilder description = new StringBuilder();
+        if (conditionMethod != null) {
+            description.append("when ");
+            description.append(conditionMethod.getMethod().getName());
+            description.append(" then ");
+        }
+        Iterator<RuleMethod> iterator = actionMethods.iterator();
+        while (iterator.hasNext()) {
+            description.append(iterator.next().getMethod().getName());
+            if (iterator.hasNext()) {
+                description.append(",");
+            }
+        }
+        return description.toString();
+    }
+
+}
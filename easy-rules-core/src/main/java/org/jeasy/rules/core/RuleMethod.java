@@ -0,0 +1,154 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.api.Facts;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Collection;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * A condition or action method of an annotated rule along with the names of the facts
+ * to inject in its parameters.
+ *
+ * The method is bound once to a {@link MethodHandle} of type (Object, Facts)Object that resolves
+ * each parameter from facts before calling the method. This avoids the access checks and argument
+ * arrays of {@link Method#invoke(Object, Object...)}, and primitive facts (int, long, double and boolean)
+ * are passed to primitive parameters without boxing.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+class RuleMethod {
+
+    private static final MethodHandle GET;
+    private static final MethodHandle GET_INT;
+    private static final MethodHandle GET_LONG;
+    private static final MethodHandle GET_DOUBLE;
+    private static final MethodHandle GET_BOOLEAN;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            GET = lookup.findVirtual(FactAccessor.class, "get", methodType(Object.class, Facts.class));
+            GET_INT = lookup.findVirtual(FactAccessor.class, "getInt", methodType(int.class, Facts.class));
+            GET_LONG = lookup.findVirtual(FactAccessor.class, "getLong", methodType(long.class, Facts.class));
+            GET_DOUBLE = lookup.findVirtual(FactAccessor.class, "getDouble", methodType(double.class, Facts.class));
+            GET_BOOLEAN = lookup.findVirtual(FactAccessor.class, "getBoolean", methodType(boolean.class, Facts.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Method method;
+
+    /*
+     * The accessor of the fact of each parameter, or null for the parameter of type Facts.
+     */
+    private final FactAccessor[] factAccessors;
+
+    /*
+     * Method handle of type (Object, Facts)Object.
+     */
+    private final MethodHandle handle;
+
+    RuleMethod(final Method method) {
+        this.method = method;
+        Parameter[] parameters = method.getParameters(); // validated upfront
+        this.factAccessors = new FactAccessor[parameters.length];
+        MethodHandle[] parameterResolvers = new MethodHandle[parameters.length];
+        int[] reorder = new int[1 + parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Fact annotation = parameters[i].getAnnotation(Fact.class);
+            // validated upfront, there may be only one parameter not annotated and which is of type Facts.class
+            factAccessors[i] = annotation == null ? null : new FactAccessor(annotation.value());
+            parameterResolvers[i] = parameterResolver(factAccessors[i], parameters[i].getType());
+            reorder[1 + i] = 1;
+        }
+        MethodHandle methodHandle = Utils.unreflect(method);
+        methodHandle = methodHandle.asType(methodHandle.type().changeParameterType(0, Object.class));
+        if (parameters.length == 0) {
+            methodHandle = MethodHandles.dropArguments(methodHandle, 1, Facts.class);
+        } else {
+            methodHandle = MethodHandles.permuteArguments(
+                    MethodHandles.filterArguments(methodHandle, 1, parameterResolvers),
+                    methodType(methodHandle.type().returnType(), Object.class, Facts.class),
+                    reorder);
+        }
+        this.handle = methodHandle.asType(methodType(Object.class, Object.class, Facts.class));
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    boolean hasFactsParameter() {
+        for (FactAccessor factAccessor : factAccessors) {
+            if (factAccessor == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void addFactNames(final Collection<String> names) {
+        for (FactAccessor factAccessor : factAccessors) {
+            if (factAccessor != null) {
+                names.add(factAccessor.getName());
+            }
+        }
+    }
+
+    Object invoke(final Object target, final Facts facts) throws Throwable {
+        return (Object) handle.invokeExact(target, facts);
+    }
+
+    /*
+     * Method handle of type (Facts)parameterType resolving a parameter value from facts.
+     */
+    private static MethodHandle parameterResolver(final FactAccessor factAccessor, final Class<?> parameterType) {
+        if (factAccessor == null) {
+            return MethodHandles.identity(Facts.class).asType(methodType(parameterType, Facts.class));
+        }
+        MethodHandle getter;
+        if (parameterType == int.class) {
+            getter = GET_INT;
+        } else if (parameterType == long.class) {
+            getter = GET_LONG;
+        } else if (parameterType == double.class) {
+            getter = GET_DOUBLE;
+        } else if (parameterType == boolean.class) {
+            getter = GET_BOOLEAN;
+        } else {
+            getter = GET;
+        }
+        return getter.bindTo(factAccessor).asType(methodType(parameterType, Facts.class));
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a rule recorded by engines: latencies of condition evaluations and action executions,
+ * and counts of triggered, failed and skipped applications. See {@link EngineMetrics}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class RuleMetrics {
+
+    private final String name;
+
+    private final LatencyHistogram evaluationLatencies;
+
+    private final LatencyHistogram executionLatencies;
+
+    private final LongAdder triggered = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    RuleMetrics(final String name) {
+        this(name, new LatencyHistogram(), new LatencyHistogram());
+    }
+
+    private RuleMetrics(final String name, final LatencyHistogram evaluationLatencies, final LatencyHistogram executionLatencies) {
+        this.name = name;
+        this.evaluationLatencies = evaluationLatencies;
+        this.executionLatencies = executionLatencies;
+    }
+
+    void recordEvaluation(long nanos, boolean evaluationResult) {
+        evaluationLatencies.record(nanos);
+        if (evaluationResult) {
+            triggered.increment();
+        }
+    }
+
+    void recordExecution(long nanos, boolean success) {
+        executionLatencies.record(nanos);
+        if (!success) {
+            failed.increment();
+        }
+    }
+
+    void recordSkip() {
+        skipped.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return the latencies of condition evaluations, their count is the number of evaluations.
+     *
+     * @return the latencies of condition evaluations
+     */
+    public LatencyHistogram getEvaluationLatencies() {
+        return evaluationLatencies;
+    }
+
+    /**
+     * Return the latencies of action executions, their count is the number of executions.
+     *
+     * @return the latencies of action executions
+     */
+    public LatencyHistogram getExecutionLatencies() {
+        return executionLatencies;
+    }
+
+    /**
+     * Return the number of evaluations to true.
+     *
+     * @return the number of times the rule has been triggered
+     */
+    public long getTriggeredCount() {
+        return triggered.sum();
+    }
+
+    /**
+     * Return the number of executions that threw an exception.
+     *
+     * @return the number of times the rule has failed
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Return the number of times the rule has been skipped by a listener before being evaluated.
+     *
+     * @return the number of times the rule has been skipped
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Return a copy of these metrics, which is not changed by metrics recorded afterwards.
+     *
+     * @return a copy of these metrics
+     */
+    public RuleMetrics snapshot() {
+        RuleMetrics snapshot = new RuleMetrics(name, evaluationLatencies.snapshot(), executionLatencies.snapshot());
+        snapshot.triggered.add(triggered.sum());
+        snapshot.failed.add(failed.sum());
+        snapshot.skipped.add(skipped.sum());
+        return snapshot;
+    }
+
+    /**
+     * Forget recorded metrics.
+     */
+    public void reset() {
+        evaluationLatencies.reset();
+        executionLatencies.reset();
+        triggered.reset();
+        failed.reset();
+        skipped.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RuleMetrics { name = '%s', evaluations = %d, p99 = %dns, triggered = %d, executions = %d, failed = %d, skipped = %d }",
+                name, evaluationLatencies.getCount(), evaluationLatencies.getValueAtPercentile(99),
+                getTriggeredCount(), executionLatencies.getCount(), getFailedCount(), getSkippedCount());
+    }
+
+}
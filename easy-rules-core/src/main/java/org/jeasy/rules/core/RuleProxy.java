@@ -23,223 +23,213 @@
  */
 package org.jeasy.rules.core;
 
-import org.jeasy.rules.annotation.Fact;
 import org.jeasy.rules.api.Facts;
-import org.jeasy.rules.annotation.Action;
-import org.jeasy.rules.annotation.Condition;
-import org.jeasy.rules.annotation.Priority;
 import org.jeasy.rules.api.Rule;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.lang.reflect.Proxy;
-import java.util.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class RuleProxy implements InvocationHandler {
+/**
+ * {@link Rule} implementation that adapts an annotated rule object.
+ *
+ * Calls are dispatched to the annotated methods found in the (cached) {@link RuleDescriptor}
+ * of the rule class, which is released with the class loader of the rule class.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RuleProxy implements Rule {
 
     private static final Logger LOGGER = Logger.getLogger(RuleProxy.class.getName());
 
-    private Object target;
+    private final Object target;
+
+    private final RuleDescriptor descriptor;
 
     private static RuleDefinitionValidator ruleDefinitionValidator = new RuleDefinitionValidator();
 
+    /**
+     * Suffix of the names of rule adapters generated at build time by the easy-rules-processor module.
+     */
+    private static final String ADAPTER_SUFFIX = "_RuleAdapter";
+
+    private static final ClassValue<Constructor<?>> ADAPTER_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(final Class<?> type) {
+            return findAdapterConstructor(type);
+        }
+    };
+
     private RuleProxy(final Object target) {
         this.target = target;
+        this.descriptor = RuleDescriptor.of(target.getClass());
     }
 
     /**
      * Makes the rule object implement the {@link Rule} interface.
      *
+     * If an adapter has been generated at build time for the rule class, it is used
+     * instead of a {@link RuleProxy}.
+     *
      * @param rule the annotated rule object.
      * @return a proxy that implements the {@link Rule} interface.
      */
     public static Rule asRule(final Object rule) {
         Rule result;
-        if (Utils.getInterfaces(rule).contains(Rule.class)) {
+        Constructor<?> adapterConstructor;
+        if (rule instanceof Rule) {
             result = (Rule) rule;
+        } else if ((adapterConstructor = ADAPTER_CONSTRUCTORS.get(rule.getClass())) != null) {
+            result = newAdapter(adapterConstructor, rule);
         } else {
             ruleDefinitionValidator.validateRuleDefinition(rule);
-            result = (Rule) Proxy.newProxyInstance(
-                    Rule.class.getClassLoader(),
-                    new Class[]{Rule.class, Comparable.class},
-                    new RuleProxy(rule));
+            result = new RuleProxy(rule);
         }
         return result;
     }
 
     @Override
-    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
-        String methodName = method.getName();
-        if (methodName.equals("getName")) {
-            return getRuleName();
-        }
-        if (methodName.equals("getDescription")) {
-            return getRuleDescription();
-        }
-        if (methodName.equals("getPriority")) {
-            return getRulePriority();
-        }
-        if (methodName.equals("evaluate")) {
-            Facts facts = (Facts) args[0];
-            Method conditionMethod = getConditionMethod();
-            List<Object> actualParameters = getActualParameters(conditionMethod, facts);
-            return conditionMethod.invoke(target, actualParameters.toArray()); // validated upfront
-        }
-        if (methodName.equals("execute")) {
-            for (ActionMethodOrderBean actionMethodBean : getActionMethodBeans()) {
-                Facts facts = (Facts) args[0];
-                Method actiomMethod = actionMethodBean.getMethod();
-                List<Object> actualParameters = getActualParameters(actiomMethod, facts);
-                actiomMethod.invoke(target, actualParameters.toArray());
-            }
-        }
-        if (methodName.equals("equals")) {
-            return target.equals(args[0]);
-        }
-        if (methodName.equals("hashCode")) {
-            return target.hashCode();
+    public String getName() {
+        return descriptor.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return descriptor.getDescription();
+    }
+
+    @Override
+    public int getPriority() {
+        if (!descriptor.hasPriorityMethod()) {
+            return Rule.DEFAULT_PRIORITY;
         }
-        if (methodName.equals("toString")) {
-            return target.toString();
+        try {
+            return descriptor.invokePriorityMethod(target);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
         }
-        if (methodName.equals("compareTo")) {
-            Method compareToMethod = getCompareToMethod();
-            if (compareToMethod != null) {
-                return compareToMethod.invoke(target, args);
-            } else {
-                Rule otherRule = (Rule) args[0];
-                return compareTo(otherRule);
-            }
+    }
+
+    @Override
+    public boolean evaluate(final Facts facts) {
+        try {
+            return (Boolean) descriptor.getConditionMethod().invoke(target, facts); // validated upfront
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
         }
-        return null;
     }
 
-    private List<Object> getActualParameters(Method method, Facts facts) {
-        Parameter[] parameters = method.getParameters(); // validated upfront
-        List<Object> actualParameters = new ArrayList<>();
-        for (Parameter parameter : parameters) {
-            Fact annotation = parameter.getAnnotation(Fact.class); // validated upfront
-            if (annotation == null) { // validated upfront, there may be only one parameter not annotated and which is of type Facts.class
-                actualParameters.add(facts);
-            } else {
-                String factName = annotation.value();
-                Object fact = facts.get(factName);
-                if (fact == null) {
-                    throw new RuntimeException(String.format("No fact named %s found in known facts", factName));
-                }
-                actualParameters.add(fact);
+    @Override
+    public void execute(final Facts facts) throws Exception {
+        try {
+            for (RuleMethod actionMethod : descriptor.getActionMethods()) {
+                actionMethod.invoke(target, facts);
             }
+        } catch (Exception | Error throwable) {
+            throw throwable;
+        } catch (Throwable throwable) {
+            throw new UndeclaredThrowableException(throwable);
         }
-        return actualParameters;
     }
 
-    private int compareTo(final Rule otherRule) throws Exception {
-        String otherName = otherRule.getName();
-        int otherPriority = otherRule.getPriority();
-        String name = getRuleName();
-        int priority = getRulePriority();
-
-        if (priority < otherPriority) {
-            return -1;
-        } else if (priority > otherPriority) {
-            return 1;
-        } else {
-            return name.compareTo(otherName);
-        }
+    @Override
+    public Set<String> getFactNames() {
+        return descriptor.getFactNames();
     }
 
-    private int getRulePriority() throws Exception {
-        int priority = Rule.DEFAULT_PRIORITY;
+    @Override
+    public Set<String> getConditionFactNames() {
+        return descriptor.getConditionFactNames();
+    }
 
-        Method[] methods = getMethods();
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(Priority.class)) {
-                priority = (Integer) method.invoke(target);
-                break;
-            }
-        }
-        return priority;
+    @Override
+    public boolean readsAnyFact() {
+        return descriptor.readsAnyFact();
     }
 
-    private Method getConditionMethod() {
-        Method[] methods = getMethods();
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(Condition.class)) {
-                return method;
-            }
-        }
-        return null;
+    @Override
+    public boolean isDeterministic() {
+        return descriptor.isDeterministic();
     }
 
-    private Set<ActionMethodOrderBean> getActionMethodBeans() {
-        Method[] methods = getMethods();
-        Set<ActionMethodOrderBean> actionMethodBeans = new TreeSet<>();
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(Action.class)) {
-                Action actionAnnotation = method.getAnnotation(Action.class);
-                int order = actionAnnotation.order();
-                actionMethodBeans.add(new ActionMethodOrderBean(method, order));
+    @Override
+    public int compareTo(final Rule otherRule) {
+        if (descriptor.hasCompareToMethod()) {
+            try {
+                return descriptor.invokeCompareToMethod(target, otherRule);
+            } catch (Throwable throwable) {
+                throw unchecked(throwable);
             }
         }
-        return actionMethodBeans;
-    }
+        String otherName = otherRule.getName();
+        int otherPriority = otherRule.getPriority();
+        String name = getName();
+        int priority = getPriority();
 
-    private Method getCompareToMethod() {
-        Method[] methods = getMethods();
-        for (Method method : methods) {
-            if (method.getName().equals("compareTo")) {
-                return method;
-            }
+        if (priority < otherPriority) {
+            return -1;
+        } else if (priority > otherPriority) {
+            return 1;
+        } else {
+            return name.compareTo(otherName);
         }
-        return null;
     }
 
-    private Method[] getMethods() {
-        return getTargetClass().getMethods();
+    @Override
+    public boolean equals(final Object o) {
+        return target.equals(o);
     }
 
-    private org.jeasy.rules.annotation.Rule getRuleAnnotation() {
-        return Utils.findAnnotation(org.jeasy.rules.annotation.Rule.class, getTargetClass());
+    @Override
+    public int hashCode() {
+        return target.hashCode();
     }
 
-    private String getRuleName() {
-        org.jeasy.rules.annotation.Rule rule = getRuleAnnotation();
-        return rule.name().equals(Rule.DEFAULT_NAME) ? getTargetClass().getSimpleName() : rule.name();
+    @Override
+    public String toString() {
+        return target.toString();
     }
 
-    private String getRuleDescription() {
-        // Default description = "when " + conditionMethodName + " then " + comma separated actionMethodsNames
-        StringBuilder description = new StringBuilder();
-        appendConditionMethodName(description);
-        appendActionMethodsNames(description);
-
-        org.jeasy.rules.annotation.Rule rule = getRuleAnnotation();
-        return rule.description().equals(Rule.DEFAULT_DESCRIPTION) ? description.toString() : rule.description();
+    /*
+     * Checked exceptions thrown by rule methods are wrapped as a dynamic proxy would do.
+     */
+    private static RuntimeException unchecked(final Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return new UndeclaredThrowableException(throwable);
     }
 
-    private void appendConditionMethodName(StringBuilder description) {
-        Method method = getConditionMethod();
-        if (method != null) {
-            description.append("when ");
-            description.append(method.getName());
-            description.append(" then ");
+    private static Rule newAdapter(final Constructor<?> adapterConstructor, final Object rule) {
+        try {
+            return (Rule) adapterConstructor.newInstance(rule);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create rule adapter " + adapterConstructor.getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create rule adapter " + adapterConstructor.getName(), e);
         }
     }
 
-    private void appendActionMethodsNames(StringBuilder description) {
-        Iterator<ActionMethodOrderBean> iterator = getActionMethodBeans().iterator();
-        while (iterator.hasNext()) {
-            description.append(iterator.next().getMethod().getName());
-            if (iterator.hasNext()) {
-                description.append(",");
+    /*
+     * The adapter of rule class a.b.Outer$MyRule is named a.b.Outer_MyRule_RuleAdapter.
+     */
+    private static Constructor<?> findAdapterConstructor(final Class<?> ruleClass) {
+        String adapterName = ruleClass.getName().replace('$', '_') + ADAPTER_SUFFIX;
+        try {
+            Class<?> adapterClass = Class.forName(adapterName, true, ruleClass.getClassLoader());
+            if (Rule.class.isAssignableFrom(adapterClass)) {
+                return adapterClass.getConstructor(ruleClass);
             }
+        } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+            LOGGER.log(Level.FINE, "No rule adapter found for " + ruleClass.getName(), e);
         }
-    }
-
-    private Class<?> getTargetClass() {
-        return target.getClass();
+        return null;
     }
 
 }
@@ -27,7 +27,10 @@ import org.jeasy.rules.api.RuleListener;
 import org.jeasy.rules.api.RulesEngine;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Builder for rules engine instances.
@@ -40,6 +43,25 @@ public class RulesEngineBuilder {
 
     private List<RuleListener> ruleListeners;
 
+    /*
+     * Indexes of listeners to notify asynchronously, wrapped when building each engine.
+     */
+    private BitSet asyncRuleListeners;
+
+    private Executor evaluationExecutor;
+
+    private Executor asyncExecutor;
+
+    private boolean inference;
+
+    private boolean rete;
+
+    private EngineMetrics metrics;
+
+    private boolean mbeanRegistration;
+
+    private ConditionCache conditionCache;
+
     public static RulesEngineBuilder aNewRulesEngine() {
         return new RulesEngineBuilder();
     }
@@ -47,6 +69,9 @@ public class RulesEngineBuilder {
     private RulesEngineBuilder() {
         parameters = new RulesEngineParameters(RulesEngine.DEFAULT_NAME, false, false, RulesEngine.DEFAULT_RULE_PRIORITY_THRESHOLD, false);
         ruleListeners = new ArrayList<>();
+        asyncRuleListeners = new BitSet();
+        evaluationExecutor = ForkJoinPool.commonPool();
+        asyncExecutor = Utils.defaultAsyncExecutor();
     }
 
     public RulesEngineBuilder named(final String name) {
@@ -79,13 +104,172 @@ public class RulesEngineBuilder {
         return this;
     }
 
+    /**
+     * Register a listener notified asynchronously on a background thread, see {@link AsyncRuleListener}.
+     * The listener can not prevent rules from being evaluated. Each built engine notifies it
+     * on its own thread, which is stopped when the engine is closed, see {@link RulesEngine#close()}.
+     *
+     * @param ruleListener listener to notify asynchronously
+     * @return the builder
+     */
+    public RulesEngineBuilder withAsyncRuleListener(final RuleListener ruleListener) {
+        this.asyncRuleListeners.set(this.ruleListeners.size());
+        this.ruleListeners.add(ruleListener);
+        return this;
+    }
+
     public RulesEngineBuilder withSilentMode(final boolean silentMode) {
         parameters.setSilentMode(silentMode);
         return this;
     }
 
+    /**
+     * Evaluate conditions of rules in parallel, see {@link DefaultRulesEngine}.
+     *
+     * @param parallelEvaluation true to evaluate conditions in parallel
+     * @return the builder
+     */
+    public RulesEngineBuilder withParallelEvaluation(final boolean parallelEvaluation) {
+        parameters.setParallelEvaluation(parallelEvaluation);
+        return this;
+    }
+
+    /**
+     * Split batches of facts in chunks fired concurrently, see {@link DefaultRulesEngine#fireAll}.
+     *
+     * @param parallelBatches true to fire batches in parallel
+     * @return the builder
+     */
+    public RulesEngineBuilder withParallelBatches(final boolean parallelBatches) {
+        parameters.setParallelBatches(parallelBatches);
+        return this;
+    }
+
+    /**
+     * Set the executor used to evaluate conditions and to fire batches in parallel,
+     * the common fork-join pool by default.
+     *
+     * @param evaluationExecutor executor of condition evaluations
+     * @return the builder
+     */
+    public RulesEngineBuilder withEvaluationExecutor(final Executor evaluationExecutor) {
+        this.evaluationExecutor = evaluationExecutor;
+        return this;
+    }
+
+    /**
+     * Set the executor of asynchronous fires and checks. Defaults to a virtual thread per task
+     * on JDK 21+ and to a bounded pool of daemon threads otherwise.
+     *
+     * @param asyncExecutor executor of asynchronous fires and checks
+     * @return the builder
+     */
+    public RulesEngineBuilder withAsyncExecutor(final Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    /**
+     * Build an {@link InferenceRulesEngine} applying rules until no rule is triggered.
+     *
+     * @param inference true to build an inference engine
+     * @return the builder
+     */
+    public RulesEngineBuilder withInference(final boolean inference) {
+        this.inference = inference;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of cycles of an inference engine.
+     *
+     * @param maxInferenceCycles maximum number of rules executed by an inference engine in a fire
+     * @return the builder
+     */
+    public RulesEngineBuilder withMaxInferenceCycles(final int maxInferenceCycles) {
+        parameters.setMaxInferenceCycles(maxInferenceCycles);
+        return this;
+    }
+
+    /**
+     * Build a {@link ReteRulesEngine} matching declarative rules with a Rete-style network.
+     * A Rete engine already chains rules, it can not be combined with {@link #withInference(boolean)}.
+     *
+     * @param rete true to build a Rete engine
+     * @return the builder
+     */
+    public RulesEngineBuilder withRete(final boolean rete) {
+        this.rete = rete;
+        return this;
+    }
+
+    /**
+     * Record metrics of rules applied by the engine, see {@link EngineMetrics}.
+     *
+     * @param metrics in which metrics are recorded, null to record no metrics
+     * @return the builder
+     */
+    public RulesEngineBuilder withMetrics(final EngineMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Register the engine in the platform MBean server, see {@link RulesEngineMonitor}.
+     * Metrics are recorded in new {@link EngineMetrics} unless metrics have been given.
+     * The engine is unregistered when closed, and building an engine named like a registered one
+     * fails with an {@link IllegalStateException}.
+     *
+     * @param mbeanRegistration true to register the engine MBean
+     * @return the builder
+     */
+    public RulesEngineBuilder withMBeanRegistration(final boolean mbeanRegistration) {
+        this.mbeanRegistration = mbeanRegistration;
+        return this;
+    }
+
+    /**
+     * Cache the results of deterministic conditions, see {@link ConditionCache}.
+     *
+     * @param conditionCache in which results of deterministic conditions are cached, null to cache no result
+     * @return the builder
+     */
+    public RulesEngineBuilder withConditionCache(final ConditionCache conditionCache) {
+        this.conditionCache = conditionCache;
+        return this;
+    }
+
+    /**
+     * Build a rules engine.
+     *
+     * @return a new rules engine
+     * @throws IllegalStateException if both a Rete engine and an inference engine are requested
+     */
     public RulesEngine build() {
-        return new DefaultRulesEngine(parameters, ruleListeners);
+        if (rete && inference) {
+            throw new IllegalStateException("A rules engine can not be built both as a Rete engine and an inference engine");
+        }
+        EngineMetrics engineMetrics = metrics == null && mbeanRegistration ? new EngineMetrics() : metrics;
+        List<RuleListener> engineRuleListeners = new ArrayList<>(ruleListeners);
+        for (int i = asyncRuleListeners.nextSetBit(0); i >= 0; i = asyncRuleListeners.nextSetBit(i + 1)) {
+            // each engine has its own thread, stopped when the engine is closed
+            engineRuleListeners.set(i, new AsyncRuleListener(ruleListeners.get(i)));
+        }
+        AbstractRulesEngine engine;
+        if (rete) {
+            engine = new ReteRulesEngine(parameters, engineRuleListeners, evaluationExecutor, asyncExecutor, engineMetrics,
+                    conditionCache);
+        } else if (inference) {
+            engine = new InferenceRulesEngine(parameters, engineRuleListeners, evaluationExecutor, asyncExecutor, engineMetrics,
+                    conditionCache);
+        } else {
+            engine = new DefaultRulesEngine(parameters, engineRuleListeners, evaluationExecutor, asyncExecutor, engineMetrics,
+                    conditionCache);
+        }
+        if (mbeanRegistration) {
+            new RulesEngineMonitor(engine, engineMetrics).register();
+        }
+        return engine;
     }
 
 }
@@ -0,0 +1,93 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import java.util.Map;
+
+/**
+ * Management interface of a rules engine registered in the platform MBean server,
+ * see {@link RulesEngineBuilder#withMBeanRegistration(boolean)}.
+ *
+ * Statistics are computed from the {@link EngineMetrics} of the engine since they have been created
+ * or reset. Latencies are in nanoseconds.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public interface RulesEngineMXBean {
+
+    String getName();
+
+    long getFireCount();
+
+    double getFireThroughput();
+
+    double getMeanFireLatency();
+
+    long getMedianFireLatency();
+
+    long get99thPercentileFireLatency();
+
+    long getMaxFireLatency();
+
+    /**
+     * Return the number of rules given to the last fire.
+     *
+     * @return the number of rules of the last fire
+     */
+    int getRegisteredRules();
+
+    /**
+     * Return the ratio of evaluations to true of each evaluated rule.
+     *
+     * @return the trigger ratio of each rule by rule name
+     */
+    Map<String, Double> getTriggerRatios();
+
+    /**
+     * Return the rules with the highest 99th percentile of evaluation latency.
+     *
+     * @param count maximum number of rules to return
+     * @return descriptions of the slowest rules, slowest first
+     */
+    String[] slowestRules(int count);
+
+    void resetStatistics();
+
+    int getPriorityThreshold();
+
+    void setPriorityThreshold(int priorityThreshold);
+
+    boolean isSkipOnFirstAppliedRule();
+
+    void setSkipOnFirstAppliedRule(boolean skipOnFirstAppliedRule);
+
+    boolean isSkipOnFirstNonTriggeredRule();
+
+    void setSkipOnFirstNonTriggeredRule(boolean skipOnFirstNonTriggeredRule);
+
+    boolean isSkipOnFirstFailedRule();
+
+    void setSkipOnFirstFailedRule(boolean skipOnFirstFailedRule);
+
+}
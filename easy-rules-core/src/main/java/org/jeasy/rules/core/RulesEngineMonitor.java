@@ -0,0 +1,236 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link RulesEngineMXBean} of an engine, registered in the platform MBean server under
+ * {@code org.jeasy.rules:type=RulesEngine,name=<engine name>} until the engine is closed.
+ *
+ * Tuning a parameter replaces the parameters of the engine as a whole: fires in progress
+ * may see the new value from their next rule on.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class RulesEngineMonitor implements RulesEngineMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(RulesEngineMonitor.class.getName());
+
+    private final AbstractRulesEngine engine;
+
+    private final EngineMetrics metrics;
+
+    private final ObjectName objectName;
+
+    RulesEngineMonitor(final AbstractRulesEngine engine, final EngineMetrics metrics) {
+        this.engine = engine;
+        this.metrics = metrics;
+        this.objectName = getObjectName(engine.parameters.getName());
+    }
+
+    /**
+     * Return the name under which the engine with the given name is registered.
+     *
+     * @param engineName name of the engine
+     * @return the object name of the engine MBean
+     */
+    public static ObjectName getObjectName(String engineName) {
+        try {
+            return new ObjectName("org.jeasy.rules:type=RulesEngine,name=" + ObjectName.quote(engineName));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /*
+     * Register the MBean of the engine. Other registration failures than a duplicate name are logged since
+     * monitoring should not prevent the engine from working.
+     */
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            engine.setMonitor(this);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException(String.format("MBean '%s' is already registered: engines must have unique names " +
+                    "or be closed before being replaced", objectName), e);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, String.format("Unable to register MBean '%s'", objectName), e);
+        }
+    }
+
+    /*
+     * Unregister the MBean of the engine, see AbstractRulesEngine#close().
+     */
+    void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException e) {
+            // already unregistered
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, String.format("Unable to unregister MBean '%s'", objectName), e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return engine.parameters.getName();
+    }
+
+    @Override
+    public long getFireCount() {
+        return metrics.getFireLatencies().getCount();
+    }
+
+    @Override
+    public double getFireThroughput() {
+        return metrics.getFireThroughput();
+    }
+
+    @Override
+    public double getMeanFireLatency() {
+        return metrics.getFireLatencies().getMean();
+    }
+
+    @Override
+    public long getMedianFireLatency() {
+        return metrics.getFireLatencies().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentileFireLatency() {
+        return metrics.getFireLatencies().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getMaxFireLatency() {
+        return metrics.getFireLatencies().getMax();
+    }
+
+    @Override
+    public int getRegisteredRules() {
+        return metrics.getLastFiredRules();
+    }
+
+    @Override
+    public Map<String, Double> getTriggerRatios() {
+        Map<String, Double> triggerRatios = new TreeMap<>();
+        for (RuleMetrics ruleMetrics : metrics.snapshot().values()) {
+            long evaluations = ruleMetrics.getEvaluationLatencies().getCount();
+            if (evaluations > 0) {
+                triggerRatios.put(ruleMetrics.getName(), (double) ruleMetrics.getTriggeredCount() / evaluations);
+            }
+        }
+        return triggerRatios;
+    }
+
+    @Override
+    public String[] slowestRules(int count) {
+        final Map<String, Long> latencies = new TreeMap<>();
+        for (RuleMetrics ruleMetrics : metrics.snapshot().values()) {
+            if (ruleMetrics.getEvaluationLatencies().getCount() > 0) {
+                latencies.put(ruleMetrics.getName(), ruleMetrics.getEvaluationLatencies().getValueAtPercentile(99));
+            }
+        }
+        List<String> names = new ArrayList<>(latencies.keySet());
+        Collections.sort(names, new Comparator<String>() {
+            @Override
+            public int compare(String name, String otherName) {
+                return Long.compare(latencies.get(otherName), latencies.get(name));
+            }
+        });
+        String[] slowestRules = new String[Math.max(0, Math.min(count, names.size()))];
+        for (int i = 0; i < slowestRules.length; i++) {
+            slowestRules[i] = String.format("%s: %d ns", names.get(i), latencies.get(names.get(i)));
+        }
+        return slowestRules;
+    }
+
+    @Override
+    public void resetStatistics() {
+        metrics.reset();
+    }
+
+    @Override
+    public int getPriorityThreshold() {
+        return engine.parameters.getPriorityThreshold();
+    }
+
+    @Override
+    public synchronized void setPriorityThreshold(int priorityThreshold) {
+        RulesEngineParameters parameters = engine.getParameters();
+        parameters.setPriorityThreshold(priorityThreshold);
+        engine.setParameters(parameters);
+    }
+
+    @Override
+    public boolean isSkipOnFirstAppliedRule() {
+        return engine.parameters.isSkipOnFirstAppliedRule();
+    }
+
+    @Override
+    public synchronized void setSkipOnFirstAppliedRule(boolean skipOnFirstAppliedRule) {
+        RulesEngineParameters parameters = engine.getParameters();
+        parameters.setSkipOnFirstAppliedRule(skipOnFirstAppliedRule);
+        engine.setParameters(parameters);
+    }
+
+    @Override
+    public boolean isSkipOnFirstNonTriggeredRule() {
+        return engine.parameters.isSkipOnFirstNonTriggeredRule();
+    }
+
+    @Override
+    public synchronized void setSkipOnFirstNonTriggeredRule(boolean skipOnFirstNonTriggeredRule) {
+        RulesEngineParameters parameters = engine.getParameters();
+        parameters.setSkipOnFirstNonTriggeredRule(skipOnFirstNonTriggeredRule);
+        engine.setParameters(parameters);
+    }
+
+    @Override
+    public boolean isSkipOnFirstFailedRule() {
+        return engine.parameters.isSkipOnFirstFailedRule();
+    }
+
+    @Override
+    public synchronized void setSkipOnFirstFailedRule(boolean skipOnFirstFailedRule) {
+        RulesEngineParameters parameters = engine.getParameters();
+        parameters.setSkipOnFirstFailedRule(skipOnFirstFailedRule);
+        engine.setParameters(parameters);
+    }
+
+}
@@ -32,6 +32,11 @@ import org.jeasy.rules.api.RulesEngine;
  */
 public class RulesEngineParameters {
 
+    /**
+     * Default maximum number of cycles of an inference engine.
+     */
+    public static final int DEFAULT_MAX_INFERENCE_CYCLES = 1000;
+
     /**
      * The engine name.
      */
@@ -58,10 +63,25 @@ public class RulesEngineParameters {
     private int priorityThreshold;
 
     /**
-     * Parameter to mute loggers.
+     * Parameter to mute the logs of the engine.
      */
     private boolean silentMode;
 
+    /**
+     * Parameter to evaluate rule conditions in parallel.
+     */
+    private boolean parallelEvaluation;
+
+    /**
+     * Parameter to fire batches of facts in parallel.
+     */
+    private boolean parallelBatches;
+
+    /**
+     * Parameter to stop inference after a maximum number of cycles.
+     */
+    private int maxInferenceCycles = DEFAULT_MAX_INFERENCE_CYCLES;
+
     public RulesEngineParameters() {
         this.name = RulesEngine.DEFAULT_NAME;
         this.priorityThreshold = RulesEngine.DEFAULT_RULE_PRIORITY_THRESHOLD;
@@ -75,6 +95,23 @@ public class RulesEngineParameters {
         this.silentMode = silentMode;
     }
 
+    /**
+     * Create a copy of the given parameters.
+     *
+     * @param parameters to copy
+     */
+    public RulesEngineParameters(RulesEngineParameters parameters) {
+        this.name = parameters.name;
+        this.skipOnFirstAppliedRule = parameters.skipOnFirstAppliedRule;
+        this.skipOnFirstNonTriggeredRule = parameters.skipOnFirstNonTriggeredRule;
+        this.skipOnFirstFailedRule = parameters.skipOnFirstFailedRule;
+        this.priorityThreshold = parameters.priorityThreshold;
+        this.silentMode = parameters.silentMode;
+        this.parallelEvaluation = parameters.parallelEvaluation;
+        this.parallelBatches = parameters.parallelBatches;
+        this.maxInferenceCycles = parameters.maxInferenceCycles;
+    }
+
     public String getName() {
         return name;
     }
@@ -122,4 +159,28 @@ public class RulesEngineParameters {
     public void setSkipOnFirstFailedRule(boolean skipOnFirstFailedRule) {
         this.skipOnFirstFailedRule = skipOnFirstFailedRule;
     }
+
+    public boolean isParallelEvaluation() {
+        return parallelEvaluation;
+    }
+
+    public void setParallelEvaluation(boolean parallelEvaluation) {
+        this.parallelEvaluation = parallelEvaluation;
+    }
+
+    public boolean isParallelBatches() {
+        return parallelBatches;
+    }
+
+    public void setParallelBatches(boolean parallelBatches) {
+        this.parallelBatches = parallelBatches;
+    }
+
+    public int getMaxInferenceCycles() {
+        return maxInferenceCycles;
+    }
+
+    public void setMaxInferenceCycles(int maxInferenceCycles) {
+        this.maxInferenceCycles = maxInferenceCycles;
+    }
 }
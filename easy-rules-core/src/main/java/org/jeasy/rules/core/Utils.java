@@ -23,17 +23,22 @@
  */
 package org.jeasy.rules.core;
 
-import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.List;
-import java.util.logging.Handler;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
-import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
-import static java.util.Arrays.asList;
+import static java.lang.String.format;
 
 /**
  * Utilities class.
@@ -44,49 +49,10 @@ final class Utils {
 
     private static final Logger LOGGER = Logger.getLogger(Utils.class.getName());
 
-    static {
-        try {
-            if (System.getProperty("java.util.logging.config.file") == null &&
-                    System.getProperty("java.util.logging.config.class") == null) {
-                LogManager.getLogManager().readConfiguration(Utils.class.getResourceAsStream("/logging.properties"));
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Unable to load logging configuration file", e);
-        }
-    }
-
     private Utils() {
 
     }
 
-    static void muteLoggers() {
-        Enumeration<String> loggerNames = LogManager.getLogManager().getLoggerNames();
-        while (loggerNames.hasMoreElements()) {
-            String loggerName = loggerNames.nextElement();
-            if (loggerName.startsWith("org.easyrules")) {
-                muteLogger(loggerName);
-            }
-        }
-    }
-
-    private static void muteLogger(final String logger) {
-        Logger.getLogger(logger).setUseParentHandlers(false);
-        Handler[] handlers = Logger.getLogger(logger).getHandlers();
-        for (Handler handler : handlers) {
-            Logger.getLogger(logger).removeHandler(handler);
-        }
-    }
-
-    static List<Class<?>> getInterfaces(final Object rule) {
-        List<Class<?>> interfaces = new ArrayList<>();
-        Class<?> clazz = rule.getClass();
-        while (clazz.getSuperclass() != null) {
-            interfaces.addAll(asList(clazz.getInterfaces()));
-            clazz = clazz.getSuperclass();
-        }
-        return interfaces;
-    }
-
     static <A extends Annotation> A findAnnotation(final Class<A> targetAnnotation, final Class<?> annotatedType) {
 
         A foundAnnotation = annotatedType.getAnnotation(targetAnnotation);
@@ -106,4 +72,62 @@ final class Utils {
         return findAnnotation(targetAnnotation, annotatedType) != null;
     }
 
+    /*
+     * Rule methods are public but may be declared in a class that is not accessible
+     * from this package (a package private or an inner class for instance).
+     * The returned handle takes the target object as first parameter, even for static methods.
+     */
+    static MethodHandle unreflect(final Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.FINE, "Unable to make method " + method + " accessible", e);
+        }
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, method.getDeclaringClass());
+            }
+            return handle;
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(format("Method '%s' is not accessible", method), e);
+        }
+    }
+
+    /*
+     * Executor of asynchronous fires: a virtual thread per task on JDK 21+, a bounded pool
+     * of daemon threads otherwise. Created once and shared by all engines.
+     */
+    static Executor defaultAsyncExecutor() {
+        return DefaultAsyncExecutor.INSTANCE;
+    }
+
+    private static final class DefaultAsyncExecutor {
+
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.log(Level.FINE, "Virtual threads are not available, using a bounded thread pool");
+            }
+            int threads = Runtime.getRuntime().availableProcessors() * 2;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        private final AtomicInteger count = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, "easy-rules-async-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
 }
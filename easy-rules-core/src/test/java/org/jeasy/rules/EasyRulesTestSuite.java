@@ -24,6 +24,10 @@
 package org.jeasy.rules;
 
 import junit.framework.TestSuite;
+import org.jeasy.rules.api.CheckResultTest;
+import org.jeasy.rules.api.CompiledRulesTest;
+import org.jeasy.rules.api.FactsTest;
+import org.jeasy.rules.api.RulesEngineTest;
 import org.jeasy.rules.core.*;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -41,13 +45,33 @@ import org.junit.runners.Suite;
         SkipOnFirstAppliedRuleTest.class,
         SkipOnFirstFailedRuleTest.class,
         SkipOnFirstNonTriggeredRuleTest.class,
+        ParallelEvaluationTest.class,
+        BatchFireTest.class,
+        AsyncFireTest.class,
+        InferenceRulesEngineTest.class,
+        ReteRulesEngineTest.class,
+        IncrementalCheckerTest.class,
+        LatencyHistogramTest.class,
+        EngineMetricsTest.class,
+        FlightRecorderEventsTest.class,
+        RulesEngineMonitorTest.class,
+        EngineLoggerTest.class,
+        AsyncRuleListenerTest.class,
+        ConditionCacheTest.class,
         RuleListenerTest.class,
         CustomRuleOrderingTest.class,
         RuleProxyTest.class,
         RulesEngineBuilderTest.class,
         CompositeRuleTest.class,
+        AdaptiveCompositeRuleTest.class,
+        ParallelCompositeRuleTest.class,
         RuleDefinitionValidatorTest.class,
+        RuleDescriptorTest.class,
         DefaultRulesEngineTest.class,
+        FactsTest.class,
+        CompiledRulesTest.class,
+        CheckResultTest.class,
+        RulesEngineTest.class,
         UtilsTest.class})
 public class EasyRulesTestSuite extends TestSuite {
 
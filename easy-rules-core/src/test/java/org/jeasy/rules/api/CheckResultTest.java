@@ -0,0 +1,117 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import org.jeasy.rules.core.BasicRule;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Test class for {@link CheckResult}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class CheckResultTest {
+
+    private Rule r1, r2, r3;
+
+    private CheckResult result;
+
+    @Before
+    public void setup() {
+        r1 = new BasicRule("r1", "", 1);
+        r2 = new BasicRule("r2", "", 2);
+        r3 = new BasicRule("r3", "", 3);
+        BitSet evaluated = new BitSet();
+        evaluated.set(0);
+        evaluated.set(2);
+        BitSet triggered = new BitSet();
+        triggered.set(2);
+        result = new CheckResult(new Rules(r1, r2, r3).compile(), evaluated, triggered);
+    }
+
+    @Test
+    public void resultShouldTellEvaluatedAndTriggeredRulesByIndex() {
+        assertThat(result.isEvaluated(0)).isTrue();
+        assertThat(result.isEvaluated(1)).isFalse();
+        assertThat(result.isTriggered(0)).isFalse();
+        assertThat(result.isTriggered(2)).isTrue();
+        assertThat(result.triggeredCount()).isEqualTo(1);
+        assertThat(result.nextTriggered(0)).isEqualTo(2);
+        assertThat(result.nextTriggered(3)).isEqualTo(-1);
+    }
+
+    @Test
+    public void triggeredShouldIterateOverTriggeredRules() {
+        List<Rule> triggered = new ArrayList<>();
+        for (Rule rule : result.triggered()) {
+            triggered.add(rule);
+        }
+
+        assertThat(triggered).containsExactly(r3);
+    }
+
+    @Test
+    public void mapViewShouldMapEvaluatedRulesToTheirResult() {
+        Map<Rule, Boolean> map = result.asMap();
+
+        assertThat(map).hasSize(2).containsOnly(entry(r1, false), entry(r3, true));
+        assertThat(map.get(r2)).isNull();
+        assertThat(map.containsKey(r2)).isFalse();
+    }
+
+    @Test
+    public void mapViewShouldLookUpRulesOfLargeRuleSets() {
+        Rules rules = new Rules();
+        for (int i = 0; i < 5000; i++) {
+            rules.register(new BasicRule("rule" + i, "", i));
+        }
+        CompiledRules compiledRules = rules.compile();
+        BitSet evaluated = new BitSet();
+        evaluated.set(0, compiledRules.size());
+        BitSet triggered = new BitSet();
+        for (int i = 0; i < compiledRules.size(); i += 2) {
+            triggered.set(i);
+        }
+        Map<Rule, Boolean> map = new CheckResult(compiledRules, evaluated, triggered).asMap();
+
+        for (int i = 0; i < compiledRules.size(); i++) {
+            Rule rule = compiledRules.getRule(i);
+            assertThat(compiledRules.indexOf(rule)).isEqualTo(i);
+            assertThat(map.containsKey(rule)).isTrue();
+            assertThat(map.get(rule)).isEqualTo(i % 2 == 0);
+        }
+        assertThat(compiledRules.indexOf(new BasicRule("unknown", "", 5000))).isEqualTo(-1);
+        assertThat(map.get("rule0")).isNull();
+    }
+
+}
@@ -0,0 +1,172 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.core.BasicRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link CompiledRules}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class CompiledRulesTest {
+
+    @Test
+    public void compiledRulesShouldBeSortedInTheirNaturalOrder() {
+        Set<Rule> set = new HashSet<>();
+        set.add(new BasicRule("r3", "", 3));
+        set.add(new BasicRule("r1", "", 1));
+        set.add(new BasicRule("r2", "", 2));
+
+        CompiledRules compiledRules = new Rules(set).compile();
+
+        assertThat(compiledRules.size()).isEqualTo(3);
+        assertThat(compiledRules.getName(0)).isEqualTo("r1");
+        assertThat(compiledRules.getPriority(1)).isEqualTo(2);
+        assertThat(compiledRules.getRule(2).getName()).isEqualTo("r3");
+        List<String> names = new ArrayList<>();
+        for (Rule rule : compiledRules) {
+            names.add(rule.getName());
+        }
+        assertThat(names).containsExactly("r1", "r2", "r3");
+    }
+
+    @Test
+    public void compiledRulesShouldNotSeeRulesRegisteredAfterCompilation() {
+        Rules rules = new Rules(new BasicRule("r1", "", 1));
+        CompiledRules compiledRules = rules.compile();
+
+        rules.register(new BasicRule("r2", "", 2));
+
+        assertThat(compiledRules.size()).isEqualTo(1);
+        assertThat(compiledRules.compile()).isSameAs(compiledRules);
+    }
+
+    @Test
+    public void rulesReadingAFactShouldIncludeRulesDeclaringNoFact() {
+        Rule basicRule = new BasicRule("basic", "", 1);
+        Rule declaringRule = new BasicRule("declaring", "", 2) {
+            @Override
+            public Set<String> getFactNames() {
+                return Collections.singleton("age");
+            }
+        };
+        CompiledRules compiledRules = new Rules(basicRule, declaringRule).compile();
+
+        assertThat(compiledRules.getRulesReading("age").cardinality()).isEqualTo(2);
+        assertThat(compiledRules.getRulesReading("name").get(1)).isFalse();
+        assertThat(compiledRules.getRulesReading("name").get(0)).isTrue();
+    }
+
+    @Test
+    public void rulesReadingAFactShouldIncludeAnnotatedRulesWhoseConditionTakesFacts() {
+        CompiledRules compiledRules = new Rules(new FactsReadingRule()).compile();
+
+        assertThat(compiledRules.getRule(0).getFactNames()).containsExactly("age");
+        assertThat(compiledRules.getRule(0).readsAnyFact()).isTrue();
+        assertThat(compiledRules.getRulesReading("name").get(0)).isTrue();
+    }
+
+    @Test
+    public void derivedStateShouldBeComputedOnce() {
+        final CompiledRules compiledRules = new Rules(new BasicRule("r1", "", 1)).compile();
+        final AtomicInteger computations = new AtomicInteger();
+        Function<CompiledRules, String> factory = new Function<CompiledRules, String>() {
+            @Override
+            public String apply(CompiledRules rules) {
+                assertThat(rules).isSameAs(compiledRules);
+                return "state " + computations.incrementAndGet();
+            }
+        };
+
+        assertThat(compiledRules.getDerivedState(String.class, factory)).isEqualTo("state 1");
+        assertThat(compiledRules.getDerivedState(String.class, factory)).isEqualTo("state 1");
+        assertThat(computations.get()).isEqualTo(1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void registerShouldBeRejectedByCompiledRules() {
+        new Rules().compile().register(new BasicRule("r1", "", 1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unregisterShouldBeRejectedByCompiledRules() {
+        Rule rule = new BasicRule("r1", "", 1);
+
+        new Rules(rule).compile().unregister(rule);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void clearShouldBeRejectedByCompiledRules() {
+        new Rules(new BasicRule("r1", "", 1)).compile().clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void removingThroughTheIteratorShouldBeRejectedByCompiledRules() {
+        Iterator<Rule> iterator = new Rules(new BasicRule("r1", "", 1)).compile().iterator();
+        iterator.next();
+
+        iterator.remove();
+    }
+
+    @Test
+    public void sortShouldNotChangeCompiledRules() {
+        Rule r1 = new BasicRule("r1", "", 1);
+        Rule r2 = new BasicRule("r2", "", 2);
+        CompiledRules compiledRules = new Rules(r2, r1).compile();
+
+        compiledRules.sort();
+
+        assertThat(compiledRules).containsExactly(r1, r2);
+        assertThat(compiledRules.size()).isEqualTo(2);
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class FactsReadingRule {
+
+        @Condition
+        public boolean when(@Fact("age") int age, Facts facts) {
+            return age >= 18 && facts.get("name") != null;
+        }
+
+        @Action
+        public void then() {
+        }
+    }
+}
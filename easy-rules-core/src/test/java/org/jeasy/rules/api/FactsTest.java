@@ -0,0 +1,207 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link Facts}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class FactsTest {
+
+    @Test
+    public void factsDeclaredInSchemaShouldBeStoredBySlot() {
+        FactSchema schema = FactSchema.of("amount", "score");
+        Facts facts = new Facts(schema);
+
+        facts.add("score", 42);
+        facts.add("amount", 10);
+
+        assertThat(facts.getSchema()).isSameAs(schema);
+        assertThat(facts.get(schema.getSlot("amount"))).isEqualTo(10);
+        assertThat(facts.get(schema.getSlot("score"))).isEqualTo(42);
+        assertThat(facts.get("score")).isEqualTo(42);
+    }
+
+    @Test
+    public void factsNotDeclaredInSchemaShouldBeStoredByName() {
+        FactSchema schema = FactSchema.of("amount");
+        Facts facts = new Facts(schema);
+
+        facts.add("currency", "EUR");
+
+        assertThat(schema.getSlot("currency")).isEqualTo(FactSchema.NO_SLOT);
+        assertThat(facts.get("currency")).isEqualTo("EUR");
+    }
+
+    @Test
+    public void removedFactsShouldNotBeFound() {
+        Facts facts = new Facts(FactSchema.of("amount"));
+        facts.add("amount", 10);
+        facts.add("currency", "EUR");
+
+        facts.remove("amount");
+        facts.remove("currency");
+
+        assertThat(facts.get("amount")).isNull();
+        assertThat(facts.get("currency")).isNull();
+        assertThat(facts.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    public void iterationShouldIncludeFactsStoredBySlotAndByName() {
+        Facts facts = new Facts(FactSchema.of("amount", "score"));
+        facts.add("amount", 10);
+        facts.add("currency", "EUR");
+
+        Map<String, Object> entries = new HashMap<>();
+        for (Map.Entry<String, Object> fact : facts) {
+            entries.put(fact.getKey(), fact.getValue());
+        }
+
+        assertThat(entries).hasSize(2).containsEntry("amount", 10).containsEntry("currency", "EUR");
+    }
+
+    @Test
+    public void primitiveFactsShouldBeReadWithoutBoxing() {
+        Facts facts = new Facts(FactSchema.of("age"));
+        facts.addInt("age", 18);
+        facts.addLong("id", 1L << 40);
+        facts.addDouble("amount", 12.5);
+        facts.addDouble("count", 12.0);
+        facts.addBoolean("rain", true);
+
+        assertThat(facts.getInt("age")).isEqualTo(18);
+        assertThat(facts.getInt(0)).isEqualTo(18);
+        assertThat(facts.getLong("id")).isEqualTo(1L << 40);
+        assertThat(facts.getDouble("amount")).isEqualTo(12.5);
+        assertThat(facts.getLong("count")).isEqualTo(12L);
+        assertThat(facts.getBoolean("rain")).isTrue();
+    }
+
+    @Test
+    public void primitiveFactsShouldBeBoxedWhenReadAsObjects() {
+        Facts facts = new Facts();
+        facts.addInt("age", 18);
+        facts.addBoolean("rain", false);
+
+        facts.addInt("age", 19);
+
+        assertThat(facts.get("age")).isEqualTo(19);
+        assertThat(facts.get("rain")).isEqualTo(false);
+    }
+
+    @Test
+    public void objectFactsShouldBeReadWithPrimitiveAccessors() {
+        Facts facts = new Facts();
+        facts.add("age", 18);
+        facts.add("rain", Boolean.TRUE);
+
+        assertThat(facts.getInt("age")).isEqualTo(18);
+        assertThat(facts.getDouble("age")).isEqualTo(18.0);
+        assertThat(facts.getBoolean("rain")).isTrue();
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void whenALongFactDoesNotFitInAnInt_thenAnExceptionShouldBeThrown() {
+        Facts facts = new Facts();
+        facts.addLong("id", 3_000_000_000L);
+        facts.getInt("id");
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void whenADoubleFactHasAFraction_thenAnExceptionShouldBeThrown() {
+        Facts facts = new Facts();
+        facts.addDouble("amount", 2.7);
+        facts.getLong("amount");
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void whenAnObjectFactDoesNotFitInAnInt_thenAnExceptionShouldBeThrown() {
+        Facts facts = new Facts();
+        facts.add("id", 3_000_000_000L);
+        facts.getInt("id");
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void whenAnObjectFactHasAFraction_thenAnExceptionShouldBeThrown() {
+        Facts facts = new Facts();
+        facts.add("amount", 2.7);
+        facts.getInt("amount");
+    }
+
+    @Test
+    public void iteratorShouldReturnFactsStoredInSlotsAndByName() {
+        Facts facts = new Facts(FactSchema.of("age", "name"));
+        facts.addInt("age", 18);
+        facts.add("rain", true);
+
+        Map<String, Object> entries = new HashMap<>();
+        for (Map.Entry<String, Object> fact : facts) {
+            entries.put(fact.getKey(), fact.getValue());
+        }
+
+        assertThat(entries).hasSize(2).containsEntry("age", 18).containsEntry("rain", true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenAPrimitiveFactIsMissing_thenAnExceptionShouldBeThrown() {
+        new Facts().getInt("age");
+    }
+
+    @Test
+    public void changesShouldBeRecordedWhileTracked() {
+        Facts facts = new Facts(FactSchema.of("age"));
+        facts.add("name", "foo");
+        Set<String> changes = new HashSet<>();
+
+        facts.trackChanges(changes);
+        facts.addInt("age", 18);
+        facts.addInt("age", 19);
+        facts.remove("name");
+        facts.untrackChanges(changes);
+        facts.add("currency", "EUR");
+
+        assertThat(changes).containsOnly("age", "name");
+    }
+
+    @Test
+    public void schemaShouldAssignSlotsInDeclarationOrder() {
+        FactSchema schema = FactSchema.of("a", "b", "a");
+
+        assertThat(schema.size()).isEqualTo(2);
+        assertThat(schema.getNames()).containsExactly("a", "b");
+        assertThat(schema.getSlot("b")).isEqualTo(1);
+        assertThat(schema.getName(0)).isEqualTo("a");
+    }
+}
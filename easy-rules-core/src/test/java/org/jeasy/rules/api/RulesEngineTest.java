@@ -0,0 +1,208 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import org.jeasy.rules.core.BasicRule;
+import org.jeasy.rules.core.RulesEngineParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Test class of default methods of {@link RulesEngine}, for engines implementing only fire and check.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RulesEngineTest {
+
+    private final List<String> executions = new ArrayList<>();
+
+    private Rule triggered, notTriggered;
+
+    private Rules rules;
+
+    private RulesEngine rulesEngine;
+
+    @Before
+    public void setup() {
+        triggered = new StubRule("triggered", 1, true);
+        notTriggered = new StubRule("not triggered", 2, false);
+        rules = new Rules(triggered, notTriggered);
+        rulesEngine = new MinimalRulesEngine();
+    }
+
+    @Test
+    public void fireAsyncShouldFireRules() throws Exception {
+        rulesEngine.fireAsync(rules, new Facts()).get();
+
+        assertThat(executions).containsExactly("triggered");
+    }
+
+    @Test
+    public void checkAsyncShouldCheckRules() throws Exception {
+        Map<Rule, Boolean> result = rulesEngine.checkAsync(rules, new Facts()).get();
+
+        assertThat(result).containsOnly(entry(triggered, true), entry(notTriggered, false));
+    }
+
+    @Test
+    public void evaluateShouldReturnTheEvaluatedAndTriggeredRules() {
+        CheckResult result = rulesEngine.evaluate(rules, new Facts());
+
+        assertThat(result.getRules().getRule(0)).isSameAs(triggered);
+        assertThat(result.isEvaluated(0)).isTrue();
+        assertThat(result.isEvaluated(1)).isTrue();
+        assertThat(result.isTriggered(0)).isTrue();
+        assertThat(result.isTriggered(1)).isFalse();
+    }
+
+    @Test
+    public void fireAllShouldFireRulesOnEachFactsAndReturnPerformedRules() {
+        Rule failing = new BasicRule("failing", "", 3) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                return true;
+            }
+
+            @Override
+            public void execute(Facts facts) throws Exception {
+                throw new Exception("failure");
+            }
+        };
+        rules.register(failing);
+
+        List<BitSet> outcomes = rulesEngine.fireAll(rules, Arrays.asList(new Facts(), new Facts()));
+
+        assertThat(executions).containsExactly("triggered", "triggered");
+        assertThat(outcomes).hasSize(2);
+        for (BitSet applied : outcomes) {
+            assertThat(applied.cardinality()).isEqualTo(1);
+            assertThat(applied.get(0)).isTrue();
+        }
+    }
+
+    @Test
+    public void fireAndGetAppliedShouldReturnPerformedRules() {
+        BitSet applied = rulesEngine.fireAndGetApplied(rules, new Facts());
+
+        assertThat(executions).containsExactly("triggered");
+        assertThat(applied.cardinality()).isEqualTo(1);
+        assertThat(applied.get(0)).isTrue();
+    }
+
+    @Test
+    public void rulesFiredByFireAndGetAppliedShouldBeEqualToTheGivenRulesButNotConversely() {
+        MinimalRulesEngine minimalRulesEngine = new MinimalRulesEngine();
+
+        minimalRulesEngine.fireAndGetApplied(rules, new Facts());
+        Rule fired = minimalRulesEngine.firedRules.get(0);
+
+        assertThat(fired).isNotSameAs(triggered);
+        assertThat(fired.equals(triggered)).isTrue();
+        assertThat(fired.hashCode()).isEqualTo(triggered.hashCode());
+        assertThat(triggered.equals(fired)).isFalse();
+    }
+
+    @Test
+    public void checkAllShouldCheckRulesOnEachFacts() {
+        List<Map<Rule, Boolean>> results = rulesEngine.checkAll(rules, Arrays.asList(new Facts(), new Facts()));
+
+        assertThat(results).hasSize(2);
+        for (Map<Rule, Boolean> result : results) {
+            assertThat(result).containsOnly(entry(triggered, true), entry(notTriggered, false));
+        }
+        assertThat(executions).isEmpty();
+    }
+
+    private class StubRule extends BasicRule {
+
+        private final boolean result;
+
+        StubRule(String name, int priority, boolean result) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+            this.result = result;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return result;
+        }
+
+        @Override
+        public void execute(Facts facts) {
+            executions.add(getName());
+        }
+    }
+
+    /*
+     * A third party engine implementing only the abstract methods of the interface.
+     */
+    private static class MinimalRulesEngine implements RulesEngine {
+
+        private final List<Rule> firedRules = new ArrayList<>();
+
+        @Override
+        public RulesEngineParameters getParameters() {
+            return new RulesEngineParameters();
+        }
+
+        @Override
+        public List<RuleListener> getRuleListeners() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void fire(Rules rules, Facts facts) {
+            for (Rule rule : rules) {
+                firedRules.add(rule);
+                if (rule.evaluate(facts)) {
+                    try {
+                        rule.execute(facts);
+                    } catch (Exception e) {
+                        // next rules are fired
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Map<Rule, Boolean> check(Rules rules, Facts facts) {
+            Map<Rule, Boolean> result = new HashMap<>();
+            for (Rule rule : rules) {
+                result.put(rule, rule.evaluate(facts));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class of composite rules adapting the order of evaluation of conditions, see {@link AdaptiveCompositeRule}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class AdaptiveCompositeRuleTest {
+
+    private final AtomicLong time = new AtomicLong();
+
+    private final List<String> executions = new ArrayList<>();
+
+    private AdaptiveCompositeRule compositeRule;
+
+    private StubRule costlyLookup;
+
+    private StubRule cheapFlag;
+
+    private Facts facts;
+
+    @Before
+    public void setup() {
+        compositeRule = new AdaptiveCompositeRule("composite", "adaptive composite rule", 1, 10, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return time.get();
+            }
+        });
+        costlyLookup = new StubRule("costly lookup", 1, 1000);
+        cheapFlag = new StubRule("cheap flag", 2, 10);
+        compositeRule.addRule(costlyLookup);
+        compositeRule.addRule(cheapFlag);
+        facts = new Facts();
+    }
+
+    @Test
+    public void conditionsShouldBeEvaluatedInTheirNaturalOrderBeforeReordering() {
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(costlyLookup, cheapFlag);
+    }
+
+    @Test
+    public void cheapAndSelectiveConditionShouldBeEvaluatedFirstAfterReordering() {
+        cheapFlag.result = false;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(compositeRule.evaluate(facts)).isFalse();
+        }
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(cheapFlag, costlyLookup);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(compositeRule.evaluate(facts)).isFalse();
+        }
+        assertThat(costlyLookup.evaluations).isEqualTo(10);
+        assertThat(cheapFlag.evaluations).isEqualTo(20);
+    }
+
+    @Test
+    public void selectiveConditionShouldBeEvaluatedFirstWhenCostsAreEqual() {
+        StubRule selective = new StubRule("selective", 3, 1000);
+        selective.result = false;
+        compositeRule.removeRule(cheapFlag);
+        compositeRule.addRule(selective);
+
+        for (int i = 0; i < 10; i++) {
+            compositeRule.evaluate(facts);
+        }
+
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(selective, costlyLookup);
+    }
+
+    @Test
+    public void orderShouldFollowChangesOfFalseRates() {
+        StubRule first = new StubRule("first", 3, 100);
+        StubRule second = new StubRule("second", 4, 100);
+        compositeRule.removeRule(costlyLookup);
+        compositeRule.removeRule(cheapFlag);
+        compositeRule.addRule(first);
+        compositeRule.addRule(second);
+
+        second.result = false;
+        for (int i = 0; i < 10; i++) {
+            compositeRule.evaluate(facts);
+        }
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(second, first);
+
+        second.result = true;
+        first.result = false;
+        for (int i = 0; i < 10; i++) {
+            compositeRule.evaluate(facts);
+        }
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(first, second);
+    }
+
+    @Test
+    public void actionsShouldBeExecutedInTheirNaturalOrderAfterReordering() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(compositeRule.evaluate(facts)).isTrue();
+        }
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(cheapFlag, costlyLookup);
+
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+        rulesEngine.fire(new Rules(compositeRule), facts);
+
+        assertThat(executions).containsExactly("costly lookup", "cheap flag");
+    }
+
+    @Test
+    public void removedRuleShouldNotBeEvaluated() {
+        compositeRule.removeRule(costlyLookup);
+
+        compositeRule.evaluate(facts);
+
+        assertThat(compositeRule.getEvaluationOrder()).containsExactly(cheapFlag);
+        assertThat(costlyLookup.evaluations).isEqualTo(0);
+    }
+
+    @Test
+    public void whenNoComposingRulesAreRegistered_thenAdaptiveCompositeRuleShouldEvaluateToFalse() {
+        assertThat(new AdaptiveCompositeRule().evaluate(facts)).isFalse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reorderingIntervalMustBePositive() {
+        new AdaptiveCompositeRule("composite", "adaptive composite rule", 1, 0);
+    }
+
+    private class StubRule extends BasicRule {
+
+        private final long cost;
+
+        private boolean result = true;
+
+        private int evaluations;
+
+        StubRule(String name, int priority, long cost) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+            this.cost = cost;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            evaluations++;
+            time.addAndGet(cost);
+            return result;
+        }
+
+        @Override
+        public void execute(Facts facts) {
+            executions.add(getName());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class of asynchronous fire and check of Easy Rules default engine.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class AsyncFireTest extends AbstractTest {
+
+    @Test
+    public void fireAsyncShouldFireRulesOnTheAsyncExecutor() throws Exception {
+        when(rule1.evaluate(facts)).thenReturn(true);
+        final AtomicInteger submissions = new AtomicInteger();
+        rulesEngine = aNewRulesEngine()
+                .withAsyncExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        submissions.incrementAndGet();
+                        command.run();
+                    }
+                })
+                .build();
+
+        rulesEngine.fireAsync(rules, facts).get();
+
+        assertThat(submissions.get()).isEqualTo(1);
+        verify(rule1).execute(facts);
+    }
+
+    @Test
+    public void fireAsyncShouldRunOnTheDefaultExecutor() throws Exception {
+        when(rule1.evaluate(facts)).thenReturn(true);
+
+        rulesEngine.fireAsync(rules, facts).get();
+
+        verify(rule1).execute(facts);
+    }
+
+    @Test
+    public void checkAsyncShouldReturnTheResultOfEvaluationOfEachRule() throws Exception {
+        when(rule1.evaluate(facts)).thenReturn(true);
+
+        Map<Rule, Boolean> result = rulesEngine.checkAsync(rules, facts).get();
+
+        assertThat(result).containsEntry(rule1, true);
+    }
+
+    @Test
+    public void failedFireShouldCompleteTheFutureExceptionally() throws Exception {
+        IllegalStateException exception = new IllegalStateException("fatal error!");
+        when(rule1.evaluate(facts)).thenThrow(exception);
+        RulesEngine rulesEngine = aNewRulesEngine().build();
+
+        CompletableFuture<Void> future = rulesEngine.fireAsync(rules, facts);
+
+        try {
+            future.get();
+            fail("The condition exception should have completed the future exceptionally");
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link AsyncRuleListener}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class AsyncRuleListenerTest {
+
+    private RecordingListener delegate = new RecordingListener();
+
+    private AsyncRuleListener asyncRuleListener;
+
+    @After
+    public void tearDown() {
+        delegate.release.countDown();
+        asyncRuleListener.close();
+    }
+
+    @Test
+    public void eventsShouldBeDeliveredInOrderOnAnotherThread() {
+        delegate.release.countDown();
+        asyncRuleListener = new AsyncRuleListener(delegate);
+        Rule rule = new BasicRule("rule");
+        Facts facts = new Facts();
+
+        assertThat(asyncRuleListener.beforeEvaluate(rule, facts)).isTrue();
+        asyncRuleListener.afterEvaluate(rule, true);
+        asyncRuleListener.beforeExecute(rule, facts);
+        asyncRuleListener.onSuccess(rule, facts);
+        asyncRuleListener.onFailure(rule, new Exception(), facts);
+        asyncRuleListener.close();
+
+        assertThat(delegate.events).containsExactly("beforeEvaluate rule", "afterEvaluate rule true",
+                "beforeExecute rule", "onSuccess rule", "onFailure rule");
+        assertThat(delegate.threads).doesNotContain(Thread.currentThread().getName());
+        assertThat(asyncRuleListener.getDroppedEvents()).isEqualTo(0);
+    }
+
+    @Test
+    public void eventsShouldBeDroppedWhenTheBufferIsFull() throws Exception {
+        asyncRuleListener = new AsyncRuleListener(delegate, 2);
+        Rule rule = new BasicRule("rule");
+
+        asyncRuleListener.afterEvaluate(rule, true);
+        assertThat(delegate.delivering.await(1, TimeUnit.SECONDS)).isTrue();
+        // the first event is being delivered, the buffer holds the next two ones
+        for (int i = 0; i < 5; i++) {
+            asyncRuleListener.afterEvaluate(rule, true);
+        }
+        delegate.release.countDown();
+        asyncRuleListener.close();
+
+        assertThat(asyncRuleListener.getDroppedEvents()).isEqualTo(3);
+        assertThat(delegate.events).hasSize(3);
+    }
+
+    @Test
+    public void eventsPublishedWhileTheThreadIsParkedShouldBeDelivered() throws Exception {
+        delegate.release.countDown();
+        asyncRuleListener = new AsyncRuleListener(delegate);
+        Rule rule = new BasicRule("rule");
+
+        asyncRuleListener.afterEvaluate(rule, true);
+        assertThat(delegate.delivering.await(1, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        asyncRuleListener.afterEvaluate(rule, false);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (delegate.events.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertThat(delegate.events).containsExactly("afterEvaluate rule true", "afterEvaluate rule false");
+    }
+
+    @Test
+    public void listenerShouldNotStartAThreadBeforeTheFirstEvent() {
+        long threads = listenerThreads();
+        asyncRuleListener = new AsyncRuleListener(delegate);
+
+        asyncRuleListener.close();
+        asyncRuleListener.close();
+
+        assertThat(listenerThreads()).isLessThanOrEqualTo(threads);
+        asyncRuleListener.afterEvaluate(new BasicRule("rule"), true);
+        assertThat(asyncRuleListener.getDroppedEvents()).isEqualTo(1);
+        assertThat(delegate.events).isEmpty();
+    }
+
+    @Test
+    public void eventsPublishedConcurrentlyWithCloseShouldBeDeliveredOrDropped() throws Exception {
+        delegate.release.countDown();
+        asyncRuleListener = new AsyncRuleListener(delegate, 64);
+        final Rule rule = new BasicRule("rule");
+        final int eventsPerThread = 1000;
+        List<Thread> publishers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            publishers.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < eventsPerThread; j++) {
+                        asyncRuleListener.afterEvaluate(rule, true);
+                    }
+                }
+            }));
+        }
+        for (Thread publisher : publishers) {
+            publisher.start();
+        }
+        asyncRuleListener.close();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        assertThat(delegate.events.size() + asyncRuleListener.getDroppedEvents()).isEqualTo(4 * eventsPerThread);
+    }
+
+    @Test
+    public void engineShouldNotifyAsyncListeners() {
+        delegate.release.countDown();
+        RulesEngine rulesEngine = aNewRulesEngine().withAsyncRuleListener(delegate).withSilentMode(true).build();
+        asyncRuleListener = (AsyncRuleListener) rulesEngine.getRuleListeners().get(0);
+
+        rulesEngine.fire(new Rules(new BasicRule("rule")), new Facts());
+        rulesEngine.close();
+
+        assertThat(asyncRuleListener.getDelegate()).isSameAs(delegate);
+        assertThat(delegate.events).containsExactly("beforeEvaluate rule", "afterEvaluate rule false");
+    }
+
+    @Test
+    public void enginesBuiltBySameBuilderShouldHaveTheirOwnAsyncListener() {
+        delegate.release.countDown();
+        RulesEngineBuilder builder = aNewRulesEngine().withAsyncRuleListener(delegate).withSilentMode(true);
+        RulesEngine closedEngine = builder.build();
+        RulesEngine rulesEngine = builder.build();
+        asyncRuleListener = (AsyncRuleListener) rulesEngine.getRuleListeners().get(0);
+
+        assertThat(closedEngine.getRuleListeners().get(0)).isNotSameAs(asyncRuleListener);
+        closedEngine.close();
+        rulesEngine.fire(new Rules(new BasicRule("rule")), new Facts());
+        rulesEngine.close();
+
+        assertThat(asyncRuleListener.getDroppedEvents()).isZero();
+        assertThat(delegate.events).containsExactly("beforeEvaluate rule", "afterEvaluate rule false");
+    }
+
+    @Test
+    public void listenerClosedByItsDelegateShouldNotWaitForItself() throws Exception {
+        final CountDownLatch closed = new CountDownLatch(1);
+        asyncRuleListener = new AsyncRuleListener(new RecordingListener() {
+            @Override
+            public void afterEvaluate(Rule rule, boolean evaluationResult) {
+                asyncRuleListener.close();
+                closed.countDown();
+            }
+        });
+
+        asyncRuleListener.afterEvaluate(new BasicRule("rule"), true);
+
+        assertThat(closed.await(1, TimeUnit.SECONDS)).isTrue();
+        asyncRuleListener.afterEvaluate(new BasicRule("rule"), true);
+        assertThat(asyncRuleListener.getDroppedEvents()).isEqualTo(1);
+    }
+
+    private static long listenerThreads() {
+        long threads = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("easy-rules-listener-")) {
+                threads++;
+            }
+        }
+        return threads;
+    }
+
+    private static class RecordingListener implements RuleListener {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch delivering = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private void record(String event) {
+            delivering.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public boolean beforeEvaluate(Rule rule, Facts facts) {
+            record("beforeEvaluate " + rule.getName());
+            return false;
+        }
+
+        @Override
+        public void afterEvaluate(Rule rule, boolean evaluationResult) {
+            record("afterEvaluate " + rule.getName() + " " + evaluationResult);
+        }
+
+        @Override
+        public void beforeExecute(Rule rule, Facts facts) {
+            record("beforeExecute " + rule.getName());
+        }
+
+        @Override
+        public void onSuccess(Rule rule, Facts facts) {
+            record("onSuccess " + rule.getName());
+        }
+
+        @Override
+        public void onFailure(Rule rule, Exception exception, Facts facts) {
+            record("onFailure " + rule.getName());
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class of batch fire and check of Easy Rules default engine.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class BatchFireTest {
+
+    private Rule evenRule, positiveRule;
+
+    private Rules rules;
+
+    private List<Facts> batch;
+
+    @Before
+    public void setup() {
+        evenRule = new BasicRule("even", "even", 1) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                return facts.getInt("n") % 2 == 0;
+            }
+        };
+        positiveRule = new BasicRule("positive", "positive", 2) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                return facts.getInt("n") > 0;
+            }
+        };
+        rules = new Rules(evenRule, positiveRule);
+        batch = new ArrayList<>();
+        for (int n = -50; n < 50; n++) {
+            Facts facts = new Facts();
+            facts.addInt("n", n);
+            batch.add(facts);
+        }
+    }
+
+    @Test
+    public void fireAllShouldReturnRulesAppliedOnEachFacts() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+
+        List<BitSet> outcomes = rulesEngine.fireAll(rules, batch);
+
+        assertOutcomes(outcomes);
+    }
+
+    @Test
+    public void fireAllShouldApplyRulesInParallelBatches() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).withParallelBatches(true).build();
+
+        List<BitSet> outcomes = rulesEngine.fireAll(rules, batch);
+
+        assertOutcomes(outcomes);
+    }
+
+    @Test
+    public void fireAllShouldHonourSkipParameters() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).withSkipOnFirstAppliedRule(true).build();
+
+        List<BitSet> outcomes = rulesEngine.fireAll(rules, batch);
+
+        // n = 2: even rule is applied, positive rule is skipped
+        assertThat(outcomes.get(52).cardinality()).isEqualTo(1);
+        assertThat(outcomes.get(52).get(0)).isTrue();
+    }
+
+    @Test
+    public void fireAndGetAppliedShouldReturnRulesAppliedOnSingleFacts() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+
+        BitSet applied = rulesEngine.fireAndGetApplied(rules, batch.get(52));
+
+        // n = 2: both rules are applied
+        assertThat(applied.cardinality()).isEqualTo(2);
+    }
+
+    @Test
+    public void checkAllShouldReturnEvaluationResultsOfEachFacts() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).withParallelBatches(true).build();
+
+        List<Map<Rule, Boolean>> results = rulesEngine.checkAll(rules, batch);
+
+        assertThat(results).hasSize(100);
+        for (int record = 0; record < batch.size(); record++) {
+            int n = record - 50;
+            assertThat(results.get(record)).containsEntry(evenRule, n % 2 == 0).containsEntry(positiveRule, n > 0);
+        }
+    }
+
+    @Test
+    public void fireAllWithoutRulesShouldReturnEmptyOutcomes() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+
+        List<BitSet> outcomes = rulesEngine.fireAll(new Rules(), batch);
+
+        assertThat(outcomes).hasSize(100);
+        assertThat(outcomes.get(0).isEmpty()).isTrue();
+    }
+
+    private void assertOutcomes(List<BitSet> outcomes) {
+        assertThat(outcomes).hasSize(100);
+        for (int record = 0; record < batch.size(); record++) {
+            int n = record - 50;
+            BitSet outcome = outcomes.get(record);
+            assertThat(outcome.get(0)).isEqualTo(n % 2 == 0);
+            assertThat(outcome.get(1)).isEqualTo(n > 0);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Deterministic;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Rule;
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class of the cache of deterministic conditions, see {@link ConditionCache}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ConditionCacheTest {
+
+    @Test
+    public void deterministicConditionShouldBeEvaluatedOncePerFactValues() {
+        ConditionCache cache = new ConditionCache();
+        RulesEngine rulesEngine = aNewRulesEngine().withConditionCache(cache).withSilentMode(true).build();
+        AdultRule adultRule = new AdultRule();
+        Rules rules = new Rules(adultRule);
+        Facts facts = new Facts();
+        facts.add("age", 20);
+
+        rulesEngine.fire(rules, facts);
+        rulesEngine.fire(rules, facts);
+        facts.add("age", 10);
+        rulesEngine.fire(rules, facts);
+        facts.add("age", 20);
+        rulesEngine.fire(rules, facts);
+
+        assertThat(adultRule.evaluations).isEqualTo(2);
+        assertThat(adultRule.executions).isEqualTo(3);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitRate()).isEqualTo(0.5);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void changingAFactReadOnlyByActionsShouldNotMissTheCache() {
+        ConditionCache cache = new ConditionCache();
+        RulesEngine rulesEngine = aNewRulesEngine().withConditionCache(cache).withSilentMode(true).build();
+        GreetingRule greetingRule = new GreetingRule();
+        Rules rules = new Rules(greetingRule);
+        Facts facts = new Facts();
+        facts.add("age", 20);
+        facts.add("name", "foo");
+
+        rulesEngine.fire(rules, facts);
+        facts.add("name", "bar");
+        rulesEngine.fire(rules, facts);
+
+        assertThat(greetingRule.evaluations).isEqualTo(1);
+        assertThat(greetingRule.greeted).isEqualTo("bar");
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void nonDeterministicConditionShouldNotBeCached() {
+        ConditionCache cache = new ConditionCache();
+        RulesEngine rulesEngine = aNewRulesEngine().withConditionCache(cache).withSilentMode(true).build();
+        CountingRule rule = new CountingRule(false);
+        Facts facts = new Facts();
+        facts.add("age", 20);
+
+        rulesEngine.fire(new Rules(rule), facts);
+        rulesEngine.fire(new Rules(rule), facts);
+
+        assertThat(rule.evaluations).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void conditionShouldBeEvaluatedWithoutCacheWhenAFactIsMissing() {
+        ConditionCache cache = new ConditionCache();
+        CountingRule rule = new CountingRule(true);
+        CompiledRules rules = new Rules(rule).compile();
+
+        cache.evaluate(rules, 0, new Facts());
+        cache.evaluate(rules, 0, new Facts());
+
+        assertThat(rule.evaluations).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(0);
+        assertThat(cache.getMissCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void leastRecentlyUsedResultShouldBeEvictedWhenCacheIsFull() {
+        ConditionCache cache = new ConditionCache(2);
+        CountingRule rule = new CountingRule(true);
+        CompiledRules rules = new Rules(rule).compile();
+
+        cache.evaluate(rules, 0, factsWithAge(1));
+        cache.evaluate(rules, 0, factsWithAge(2));
+        cache.evaluate(rules, 0, factsWithAge(1));
+        cache.evaluate(rules, 0, factsWithAge(3));
+        cache.evaluate(rules, 0, factsWithAge(1));
+        cache.evaluate(rules, 0, factsWithAge(2));
+
+        assertThat(rule.evaluations).isEqualTo(4);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void resultShouldExpireAfterTimeToLive() {
+        final AtomicLong time = new AtomicLong();
+        ConditionCache cache = new ConditionCache(10, 100, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return time.get();
+            }
+        });
+        CountingRule rule = new CountingRule(true);
+        CompiledRules rules = new Rules(rule).compile();
+
+        cache.evaluate(rules, 0, factsWithAge(1));
+        time.set(99);
+        cache.evaluate(rules, 0, factsWithAge(1));
+        time.set(100);
+        cache.evaluate(rules, 0, factsWithAge(1));
+
+        assertThat(rule.evaluations).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void rulesHavingTheSameNameShouldNotShareResults() {
+        ConditionCache cache = new ConditionCache();
+        CountingRule rule = new CountingRule(true);
+        CountingRule sameName = new CountingRule(true);
+        Facts facts = factsWithAge(1);
+
+        cache.evaluate(new Rules(rule).compile(), 0, facts);
+        cache.evaluate(new Rules(sameName).compile(), 0, facts);
+
+        assertThat(rule.evaluations).isEqualTo(1);
+        assertThat(sameName.evaluations).isEqualTo(1);
+    }
+
+    @Test
+    public void statisticsShouldBeReset() {
+        ConditionCache cache = new ConditionCache();
+        CompiledRules rules = new Rules(new CountingRule(true)).compile();
+        cache.evaluate(rules, 0, factsWithAge(1));
+        cache.evaluate(rules, 0, factsWithAge(1));
+
+        cache.resetStatistics();
+        cache.invalidateAll();
+
+        assertThat(cache.getHitCount()).isEqualTo(0);
+        assertThat(cache.getMissCount()).isEqualTo(0);
+        assertThat(cache.getHitRate()).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maximumSizeMustBePositive() {
+        new ConditionCache(0);
+    }
+
+    private static Facts factsWithAge(int age) {
+        Facts facts = new Facts();
+        facts.add("age", age);
+        return facts;
+    }
+
+    @Rule(name = "adult rule")
+    public static class AdultRule {
+
+        private int evaluations;
+
+        private int executions;
+
+        @Condition
+        @Deterministic
+        public boolean isAdult(@Fact("age") int age) {
+            evaluations++;
+            return age > 18;
+        }
+
+        @Action
+        public void then() {
+            executions++;
+        }
+    }
+
+    @Rule(name = "greeting rule")
+    public static class GreetingRule {
+
+        private int evaluations;
+
+        private String greeted;
+
+        @Condition
+        @Deterministic
+        public boolean isAdult(@Fact("age") int age) {
+            evaluations++;
+            return age > 18;
+        }
+
+        @Action
+        public void greet(@Fact("name") String name) {
+            greeted = name;
+        }
+    }
+
+    private static class CountingRule extends BasicRule {
+
+        private final boolean deterministic;
+
+        private int evaluations;
+
+        CountingRule(boolean deterministic) {
+            super("counting rule");
+            this.deterministic = deterministic;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            evaluations++;
+            return true;
+        }
+
+        @Override
+        public Set<String> getFactNames() {
+            return Collections.singleton("age");
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return deterministic;
+        }
+    }
+}
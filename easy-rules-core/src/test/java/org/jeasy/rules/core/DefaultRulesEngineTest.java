@@ -26,13 +26,24 @@ package org.jeasy.rules.core;
 import org.jeasy.rules.annotation.Action;
 import org.jeasy.rules.annotation.Condition;
 import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.CheckResult;
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -168,6 +179,25 @@ public class DefaultRulesEngineTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void evaluateShouldReturnTheEvaluatedAndTriggeredRules() {
+        // Given
+        when(rule.evaluate(facts)).thenReturn(true);
+        when(anotherRule.compareTo(rule)).thenReturn(1);
+        rules = new Rules(rule, anotherRule);
+
+        // When
+        CheckResult result = rulesEngine.evaluate(rules, facts);
+
+        // Then
+        assertThat(result.getRules().getRule(0)).isSameAs(rule);
+        assertThat(result.isEvaluated(0)).isTrue();
+        assertThat(result.isEvaluated(1)).isTrue();
+        assertThat(result.isTriggered(0)).isTrue();
+        assertThat(result.isTriggered(1)).isFalse();
+        assertThat(result.asMap()).containsEntry(rule, true).containsEntry(anotherRule, false);
+    }
+
     @Test
     public void listenerShouldBeInvokedBeforeCheckingRules() throws Exception {
         // Given
@@ -196,6 +226,34 @@ public class DefaultRulesEngineTest extends AbstractTest {
                 .containsExactly(ruleListener);
     }
 
+    @Test
+    public void engineAndCompiledRulesShouldBeSharedBetweenThreads() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        Rules rules = new Rules();
+        for (int i = 0; i < 10; i++) {
+            rules.register(new CountingRule("rule" + i, executions));
+        }
+        final CompiledRules compiledRules = rules.compile();
+        final RulesEngine sharedEngine = RulesEngineBuilder.aNewRulesEngine().withSilentMode(true).build();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            futures.add(executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    sharedEngine.fire(compiledRules, new Facts());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        assertThat(executions.get()).isEqualTo(1000);
+    }
+
     @After
     public void clearRules() {
         rules.clear();
@@ -244,6 +302,26 @@ public class DefaultRulesEngineTest extends AbstractTest {
 
     }
 
+    private static class CountingRule extends BasicRule {
+
+        private final AtomicInteger executions;
+
+        CountingRule(String name, AtomicInteger executions) {
+            super(name);
+            this.executions = executions;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return true;
+        }
+
+        @Override
+        public void execute(Facts facts) {
+            executions.incrementAndGet();
+        }
+    }
+
     @org.jeasy.rules.annotation.Rule
     public class DummyRule {
 
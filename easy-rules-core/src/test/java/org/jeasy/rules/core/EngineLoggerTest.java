@@ -0,0 +1,156 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link EngineLogger} and silent mode.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class EngineLoggerTest {
+
+    private Logger logger = Logger.getLogger(RulesEngine.class.getName());
+
+    private RecordingHandler handler = new RecordingHandler();
+
+    @Before
+    public void setup() {
+        logger.addHandler(handler);
+    }
+
+    @After
+    public void tearDown() {
+        logger.removeHandler(handler);
+    }
+
+    @Test
+    public void silentEngineShouldLogNothing() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+
+        rulesEngine.fire(new Rules(new BasicRule("rule")), new Facts());
+
+        assertThat(handler.records).isEmpty();
+    }
+
+    @Test
+    public void engineShouldLogWhenNotSilent() {
+        RulesEngine rulesEngine = aNewRulesEngine().build();
+
+        rulesEngine.fire(new Rules(new BasicRule("rule")), new Facts());
+
+        assertThat(handler.records).isNotEmpty();
+    }
+
+    @Test
+    public void silentEngineShouldNotMuteOtherEngines() {
+        Logger easyRulesLogger = Logger.getLogger("org.jeasy.rules.core.test");
+        easyRulesLogger.addHandler(handler);
+        RulesEngine silentEngine = aNewRulesEngine().withSilentMode(true).build();
+        RulesEngine rulesEngine = aNewRulesEngine().build();
+
+        silentEngine.fire(new Rules(new BasicRule("rule")), new Facts());
+        rulesEngine.fire(new Rules(new BasicRule("rule")), new Facts());
+
+        assertThat(easyRulesLogger.getHandlers()).containsExactly(handler);
+        assertThat(easyRulesLogger.getUseParentHandlers()).isTrue();
+        assertThat(handler.records).isNotEmpty();
+        easyRulesLogger.removeHandler(handler);
+    }
+
+    @Test
+    public void parametersShouldNotBeFormattedByASilentLogger() {
+        CountingParameter parameter = new CountingParameter();
+        EngineLogger engineLogger = new EngineLogger(logger, getClass(), true);
+
+        engineLogger.info("Parameter {0}", parameter);
+        engineLogger.warning("Parameter {0}", parameter);
+        engineLogger.severe("Parameter {0}", parameter, new Exception());
+
+        assertThat(parameter.formattings).isEqualTo(0);
+        assertThat(handler.records).isEmpty();
+    }
+
+    @Test
+    public void recordsShouldCarryThePatternAndParameters() {
+        EngineLogger engineLogger = new EngineLogger(logger, DefaultRulesEngine.class, false);
+        Exception exception = new Exception();
+
+        engineLogger.severe("Rule ''{0}'' performed with error", "rule", exception);
+
+        assertThat(handler.records).hasSize(1);
+        LogRecord record = handler.records.get(0);
+        assertThat(record.getLevel()).isEqualTo(Level.SEVERE);
+        assertThat(record.getMessage()).isEqualTo("Rule ''{0}'' performed with error");
+        assertThat(record.getParameters()).containsExactly("rule");
+        assertThat(record.getThrown()).isSameAs(exception);
+        assertThat(record.getSourceClassName()).isEqualTo(DefaultRulesEngine.class.getName());
+    }
+
+    private static class CountingParameter {
+
+        private int formattings;
+
+        @Override
+        public String toString() {
+            formattings++;
+            return "parameter";
+        }
+    }
+
+    private static class RecordingHandler extends Handler {
+
+        private final List<LogRecord> records = new ArrayList<>();
+
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class of metrics recorded by engines, see {@link EngineMetrics}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class EngineMetricsTest {
+
+    private EngineMetrics metrics;
+
+    private Rules rules;
+
+    private Facts facts;
+
+    @Before
+    public void setup() {
+        metrics = new EngineMetrics();
+        rules = new Rules(new StubRule("triggered", 1, true, false), new StubRule("failing", 2, true, true),
+                new StubRule("not triggered", 3, false, false));
+        facts = new Facts();
+    }
+
+    @Test
+    public void engineShouldRecordMetricsOfEachRule() {
+        RulesEngine rulesEngine = aNewRulesEngine().withMetrics(metrics).withSilentMode(true).build();
+
+        rulesEngine.fire(rules, facts);
+        rulesEngine.fire(rules, facts);
+
+        RuleMetrics triggered = metrics.getRuleMetrics("triggered");
+        assertThat(triggered.getEvaluationLatencies().getCount()).isEqualTo(2);
+        assertThat(triggered.getTriggeredCount()).isEqualTo(2);
+        assertThat(triggered.getExecutionLatencies().getCount()).isEqualTo(2);
+        assertThat(triggered.getFailedCount()).isEqualTo(0);
+        assertThat(metrics.getRuleMetrics("failing").getFailedCount()).isEqualTo(2);
+        RuleMetrics notTriggered = metrics.getRuleMetrics("not triggered");
+        assertThat(notTriggered.getEvaluationLatencies().getCount()).isEqualTo(2);
+        assertThat(notTriggered.getTriggeredCount()).isEqualTo(0);
+        assertThat(notTriggered.getExecutionLatencies().getCount()).isEqualTo(0);
+        assertThat(metrics.getFireLatencies().getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void engineShouldRecordRulesSkippedByListeners() {
+        RulesEngine rulesEngine = aNewRulesEngine().withMetrics(metrics).withSilentMode(true)
+                .withRuleListener(new SkippingListener()).build();
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(metrics.getRuleMetrics("triggered").getSkippedCount()).isEqualTo(1);
+        assertThat(metrics.getRuleMetrics("triggered").getEvaluationLatencies().getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void inferenceEngineShouldRecordMetrics() {
+        RulesEngine rulesEngine = aNewRulesEngine().withInference(true).withMetrics(metrics).withSilentMode(true).build();
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(metrics.getRuleMetrics("triggered").getTriggeredCount()).isEqualTo(1);
+        assertThat(metrics.getRuleMetrics("failing").getFailedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void snapshotAndResetShouldCopyAndForgetMetrics() {
+        RulesEngine rulesEngine = aNewRulesEngine().withMetrics(metrics).withSilentMode(true).build();
+        rulesEngine.fire(rules, facts);
+
+        Map<String, RuleMetrics> snapshot = metrics.snapshot();
+        metrics.reset();
+
+        assertThat(snapshot.keySet()).containsExactly("failing", "not triggered", "triggered");
+        assertThat(snapshot.get("triggered").getTriggeredCount()).isEqualTo(1);
+        assertThat(metrics.getRuleMetrics("triggered").getTriggeredCount()).isEqualTo(0);
+        assertThat(metrics.getFireLatencies().getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void engineWithoutMetricsShouldRecordNothing() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(metrics.snapshot()).isEmpty();
+    }
+
+    private static class StubRule extends BasicRule {
+
+        private final boolean evaluationResult;
+
+        private final boolean failing;
+
+        StubRule(String name, int priority, boolean evaluationResult, boolean failing) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+            this.evaluationResult = evaluationResult;
+            this.failing = failing;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return evaluationResult;
+        }
+
+        @Override
+        public void execute(Facts facts) throws Exception {
+            if (failing) {
+                throw new Exception("failure");
+            }
+        }
+    }
+
+    private static class SkippingListener implements RuleListener {
+
+        @Override
+        public boolean beforeEvaluate(Rule rule, Facts facts) {
+            return !rule.getName().equals("triggered");
+        }
+
+        @Override
+        public void afterEvaluate(Rule rule, boolean evaluationResult) {
+        }
+
+        @Override
+        public void beforeExecute(Rule rule, Facts facts) {
+        }
+
+        @Override
+        public void onSuccess(Rule rule, Facts facts) {
+        }
+
+        @Override
+        public void onFailure(Rule rule, Exception exception, Facts facts) {
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class of Java Flight Recorder events emitted by engines, see {@link FlightRecorderEvents}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void flightRecorderEventsShouldBeUsedWhenFlightRecorderIsAvailable() {
+        assertThat(FlightRecorderEvents.INSTANCE).isInstanceOf(JfrEvents.class);
+    }
+
+    @Test
+    public void eventsShouldNotBeEnabledOutsideOfRecordings() {
+        assertThat(FlightRecorderEvents.INSTANCE.isFireEnabled()).isFalse();
+        assertThat(FlightRecorderEvents.INSTANCE.isEvaluationEnabled()).isFalse();
+        assertThat(FlightRecorderEvents.INSTANCE.isExecutionEnabled()).isFalse();
+    }
+
+    @Test
+    public void engineShouldEmitEventsWhenTheyAreEnabled() throws Exception {
+        RulesEngine rulesEngine = aNewRulesEngine().named("test engine").withSilentMode(true).build();
+        Rules rules = new Rules(new StubRule("applied", 1, false), new StubRule("failing", 2, true));
+        Path file = Files.createTempFile("easy-rules", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("org.jeasy.rules.Fire");
+                recording.enable("org.jeasy.rules.RuleEvaluation");
+                recording.enable("org.jeasy.rules.RuleExecution");
+                recording.enable("org.jeasy.rules.RuleFailure");
+                recording.start();
+                rulesEngine.fire(rules, new Facts());
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<String> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                String name = event.getEventType().getName();
+                assertThat(event.getString("engine")).isEqualTo("test engine");
+                if (name.equals("org.jeasy.rules.Fire")) {
+                    events.add(name + " " + event.getInt("rules"));
+                } else if (name.equals("org.jeasy.rules.RuleFailure")) {
+                    events.add(name + " " + event.getString("rule") + " " + event.getString("message"));
+                } else {
+                    events.add(name + " " + event.getString("rule") + " " + event.getInt("priority"));
+                }
+            }
+            assertThat(events).containsOnly(
+                    "org.jeasy.rules.Fire 2",
+                    "org.jeasy.rules.RuleEvaluation applied 1",
+                    "org.jeasy.rules.RuleEvaluation failing 2",
+                    "org.jeasy.rules.RuleExecution applied 1",
+                    "org.jeasy.rules.RuleExecution failing 2",
+                    "org.jeasy.rules.RuleFailure failing failure");
+            assertThat(events).hasSize(6);
+        } finally {
+            new File(file.toString()).delete();
+        }
+    }
+
+    @Test
+    public void evaluationEventShouldBeCommittedWhenAConditionThrows() throws Exception {
+        RulesEngine rulesEngine = aNewRulesEngine().named("test engine").withSilentMode(true).build();
+        Rules rules = new Rules(new BasicRule("throwing", Rule.DEFAULT_DESCRIPTION, 1) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                throw new IllegalStateException("failure");
+            }
+        });
+        Path file = Files.createTempFile("easy-rules", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("org.jeasy.rules.RuleEvaluation");
+                recording.start();
+                try {
+                    rulesEngine.fire(rules, new Facts());
+                    fail("The exception thrown by the condition should be thrown again");
+                } catch (IllegalStateException e) {
+                    assertThat(e).hasMessage("failure");
+                }
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("org.jeasy.rules.RuleEvaluation")) {
+                    events.add(event);
+                }
+            }
+            assertThat(events).hasSize(1);
+            RecordedEvent event = events.get(0);
+            assertThat(event.getString("rule")).isEqualTo("throwing");
+            assertThat(event.getBoolean("triggered")).isFalse();
+            assertThat(event.getBoolean("failed")).isTrue();
+            assertThat(event.getString("exceptionClass")).isEqualTo(IllegalStateException.class.getName());
+        } finally {
+            new File(file.toString()).delete();
+        }
+    }
+
+    private static class StubRule extends BasicRule {
+
+        private final boolean failing;
+
+        StubRule(String name, int priority, boolean failing) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+            this.failing = failing;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return true;
+        }
+
+        @Override
+        public void execute(Facts facts) throws Exception {
+            if (failing) {
+                throw new Exception("failure");
+            }
+        }
+    }
+
+}
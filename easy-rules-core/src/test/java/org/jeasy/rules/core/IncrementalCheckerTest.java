@@ -0,0 +1,259 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link IncrementalChecker}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class IncrementalCheckerTest {
+
+    private AgeRule ageRule;
+
+    private NameRule nameRule;
+
+    private Facts facts;
+
+    private IncrementalChecker checker;
+
+    @Before
+    public void setup() {
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+        ageRule = new AgeRule();
+        nameRule = new NameRule();
+        facts = new Facts();
+        facts.addInt("age", 20);
+        facts.add("name", "foo");
+        checker = new IncrementalChecker(rulesEngine, new Rules(ageRule, nameRule), facts);
+    }
+
+    @After
+    public void tearDown() {
+        checker.close();
+    }
+
+    @Test
+    public void firstCheckShouldEvaluateAllRules() {
+        Map<Rule, Boolean> results = checker.check();
+
+        assertThat(results).hasSize(2).containsValues(true, false);
+        assertThat(ageRule.evaluations).isEqualTo(1);
+        assertThat(nameRule.evaluations).isEqualTo(1);
+    }
+
+    @Test
+    public void onlyRulesReadingChangedFactsShouldBeEvaluatedAgain() {
+        checker.check();
+
+        facts.addInt("age", 10);
+        Map<Rule, Boolean> results = checker.check();
+
+        assertThat(results.values()).containsOnly(false);
+        assertThat(ageRule.evaluations).isEqualTo(2);
+        assertThat(nameRule.evaluations).isEqualTo(1);
+    }
+
+    @Test
+    public void noRuleShouldBeEvaluatedAgainWhenNoFactChanged() {
+        checker.check();
+
+        checker.check();
+
+        assertThat(ageRule.evaluations).isEqualTo(1);
+        assertThat(nameRule.evaluations).isEqualTo(1);
+    }
+
+    @Test
+    public void rulesWhoseConditionTakesFactsShouldBeEvaluatedAgainOnAnyChange() {
+        FactsReadingRule factsReadingRule = new FactsReadingRule();
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+        IncrementalChecker factsChecker = new IncrementalChecker(rulesEngine, new Rules(factsReadingRule), facts);
+        factsChecker.check();
+
+        facts.add("name", "");
+        Map<Rule, Boolean> results = factsChecker.check();
+        factsChecker.close();
+
+        assertThat(results.values()).containsOnly(true);
+        assertThat(factsReadingRule.evaluations).isEqualTo(2);
+    }
+
+    @Test
+    public void rulesSkippedByAListenerShouldBeSubmittedAgainOnNextCheck() {
+        final Set<String> skippedRules = new HashSet<>();
+        skippedRules.add("name");
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).withRuleListener(new RuleListener() {
+            @Override
+            public boolean beforeEvaluate(Rule rule, Facts facts) {
+                return !skippedRules.contains(rule.getName());
+            }
+
+            @Override
+            public void afterEvaluate(Rule rule, boolean evaluationResult) {
+            }
+
+            @Override
+            public void beforeExecute(Rule rule, Facts facts) {
+            }
+
+            @Override
+            public void onSuccess(Rule rule, Facts facts) {
+            }
+
+            @Override
+            public void onFailure(Rule rule, Exception exception, Facts facts) {
+            }
+        }).build();
+        IncrementalChecker skippingChecker = new IncrementalChecker(rulesEngine, new Rules(ageRule, nameRule), facts);
+        Map<Rule, Boolean> results = skippingChecker.check();
+        assertThat(results).hasSize(1);
+
+        skippedRules.clear();
+        results = skippingChecker.check();
+        skippingChecker.close();
+
+        assertThat(results).hasSize(2);
+        assertThat(ageRule.evaluations).isEqualTo(1);
+        assertThat(nameRule.evaluations).isEqualTo(1);
+    }
+
+    @Test
+    public void conditionsShouldBeEvaluatedByTheEngine() {
+        EngineMetrics metrics = new EngineMetrics();
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).withMetrics(metrics).build();
+        IncrementalChecker measuredChecker = new IncrementalChecker(rulesEngine, new Rules(ageRule, nameRule), facts);
+
+        measuredChecker.check();
+        facts.addInt("age", 10);
+        measuredChecker.check();
+        measuredChecker.close();
+
+        assertThat(metrics.getRuleMetrics("age").getEvaluationLatencies().getCount()).isEqualTo(2);
+        assertThat(metrics.getRuleMetrics("name").getEvaluationLatencies().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateShouldEvaluateAllRulesAgain() {
+        checker.check();
+
+        checker.invalidate();
+        checker.check();
+
+        assertThat(ageRule.evaluations).isEqualTo(2);
+        assertThat(nameRule.evaluations).isEqualTo(2);
+    }
+
+    @Test
+    public void closeShouldStopTrackingChangesOfFacts() {
+        Set<String> changes = new HashSet<>();
+        facts.trackChanges(changes);
+
+        checker.close();
+        facts.addInt("age", 10);
+        checker.check();
+
+        assertThat(changes).containsExactly("age");
+        assertThat(ageRule.evaluations).isEqualTo(1);
+    }
+
+    @org.jeasy.rules.annotation.Rule(name = "age")
+    public static class AgeRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("age") int age) {
+            evaluations++;
+            return age >= 18;
+        }
+
+        @Action
+        public void then() {
+        }
+
+        @Priority
+        public int getPriority() {
+            return 1;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule(name = "facts reading")
+    public static class FactsReadingRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("age") int age, Facts facts) {
+            evaluations++;
+            return age >= 18 && "".equals(facts.get("name"));
+        }
+
+        @Action
+        public void then() {
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule(name = "name")
+    public static class NameRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("name") String name) {
+            evaluations++;
+            return name.isEmpty();
+        }
+
+        @Action
+        public void then() {
+        }
+
+        @Priority
+        public int getPriority() {
+            return 2;
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link InferenceRulesEngine}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class InferenceRulesEngineTest {
+
+    private RulesEngine rulesEngine;
+
+    private Facts facts;
+
+    @Before
+    public void setup() {
+        rulesEngine = aNewRulesEngine().withInference(true).withSilentMode(true).build();
+        facts = new Facts();
+        facts.addBoolean("fire", true);
+        facts.addBoolean("alarm", false);
+        facts.addBoolean("sprinkler", false);
+    }
+
+    @Test
+    public void builderShouldCreateAnInferenceEngine() {
+        assertThat(rulesEngine).isInstanceOf(InferenceRulesEngine.class);
+    }
+
+    @Test
+    public void rulesShouldBeAppliedUntilNoRuleIsTriggered() {
+        Rules rules = new Rules(new RaiseAlarmRule(), new TurnSprinklerOnRule(), new PutOutFireRule(), new CancelAlarmRule());
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(facts.getBoolean("fire")).isFalse();
+        assertThat(facts.getBoolean("alarm")).isFalse();
+        assertThat(facts.getBoolean("sprinkler")).isTrue();
+    }
+
+    @Test
+    public void eachRuleShouldBeAppliedOnceWhenItsFactsDoNotChangeAnymore() {
+        Rules rules = new Rules(new RaiseAlarmRule(), new TurnSprinklerOnRule(), new PutOutFireRule(), new CancelAlarmRule());
+
+        BitSet applied = rulesEngine.fireAll(rules, Collections.singletonList(facts)).get(0);
+
+        assertThat(applied.cardinality()).isEqualTo(4);
+    }
+
+    @Test
+    public void onlyRulesAffectedByChangesShouldBeEvaluatedAgain() {
+        UnrelatedRule unrelatedRule = new UnrelatedRule();
+        Rules rules = new Rules(new RaiseAlarmRule(), new TurnSprinklerOnRule(), new PutOutFireRule(),
+                new CancelAlarmRule(), unrelatedRule);
+        facts.addInt("temperature", 20);
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(unrelatedRule.evaluations).isEqualTo(1);
+    }
+
+    @Test
+    public void inferenceShouldStopAtTheMaximumNumberOfCycles() {
+        LoopingRule loopingRule = new LoopingRule();
+        rulesEngine = aNewRulesEngine().withInference(true).withMaxInferenceCycles(5).withSilentMode(true).build();
+
+        rulesEngine.fire(new Rules(loopingRule), facts);
+
+        assertThat(loopingRule.executions).isEqualTo(5);
+    }
+
+    @Test
+    public void changesMadeDuringFireShouldBeRecordedForOtherTrackers() {
+        Set<String> changes = new HashSet<>();
+        facts.trackChanges(changes);
+
+        rulesEngine.fire(new Rules(new RaiseAlarmRule()), facts);
+
+        assertThat(changes).containsExactly("alarm");
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class RaiseAlarmRule {
+
+        @Condition
+        public boolean when(@Fact("fire") boolean fire, @Fact("alarm") boolean alarm) {
+            return fire && !alarm;
+        }
+
+        @Action
+        public void then(Facts facts) {
+            facts.addBoolean("alarm", true);
+        }
+
+        @Priority
+        public int getPriority() {
+            return 1;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class TurnSprinklerOnRule {
+
+        @Condition
+        public boolean when(@Fact("fire") boolean fire, @Fact("sprinkler") boolean sprinkler) {
+            return fire && !sprinkler;
+        }
+
+        @Action
+        public void then(Facts facts) {
+            facts.addBoolean("sprinkler", true);
+        }
+
+        @Priority
+        public int getPriority() {
+            return 2;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class PutOutFireRule {
+
+        @Condition
+        public boolean when(@Fact("fire") boolean fire, @Fact("sprinkler") boolean sprinkler) {
+            return fire && sprinkler;
+        }
+
+        @Action
+        public void then(Facts facts) {
+            facts.addBoolean("fire", false);
+        }
+
+        @Priority
+        public int getPriority() {
+            return 3;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class CancelAlarmRule {
+
+        @Condition
+        public boolean when(@Fact("fire") boolean fire, @Fact("alarm") boolean alarm) {
+            return !fire && alarm;
+        }
+
+        @Action
+        public void then(Facts facts) {
+            facts.addBoolean("alarm", false);
+        }
+
+        @Priority
+        public int getPriority() {
+            return 4;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class UnrelatedRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("temperature") int temperature) {
+            evaluations++;
+            return temperature > 50;
+        }
+
+        @Action
+        public void then() {
+        }
+
+        @Priority
+        public int getPriority() {
+            return 5;
+        }
+    }
+
+    public static class LoopingRule extends BasicRule {
+
+        private int executions;
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return true;
+        }
+
+        @Override
+        public void execute(Facts facts) {
+            facts.addInt("executions", ++executions);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test class for {@link LatencyHistogram}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void emptyHistogramShouldReportZero() {
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMean()).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+    }
+
+    @Test
+    public void percentilesShouldBeWithinTheHistogramPrecision() {
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1000000);
+        assertThat(histogram.getMean()).isCloseTo(500500, within(0.1));
+        assertThat(histogram.getValueAtPercentile(50)).isBetween(500000L, 500000L + 500000L / 16);
+        assertThat(histogram.getValueAtPercentile(99)).isBetween(990000L, 990000L + 990000L / 16);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1000000);
+    }
+
+    @Test
+    public void eachValueShouldBeCountedInABucketWhoseHighestValueIsNotLower() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123456789, 1L << 36}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(LatencyHistogram.highestValueOf(bucket)).isGreaterThanOrEqualTo(value);
+            if (bucket > 0) {
+                assertThat(LatencyHistogram.highestValueOf(bucket - 1)).isLessThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void snapshotShouldNotChangeWhenLatenciesAreRecorded() {
+        histogram.record(10);
+        LatencyHistogram snapshot = histogram.snapshot();
+
+        histogram.record(20);
+
+        assertThat(snapshot.getCount()).isEqualTo(1);
+        assertThat(snapshot.getMax()).isEqualTo(10);
+    }
+
+    @Test
+    public void resetShouldForgetRecordedLatencies() {
+        histogram.record(10);
+
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMax()).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+    }
+
+    @Test
+    public void latenciesRecordedConcurrentlyShouldAllBeCounted() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram(8);
+        final int latenciesPerThread = 20_000;
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < latenciesPerThread; j++) {
+                        histogram.record(j % 2 == 0 ? 1 : 1000);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyHistogram snapshot = histogram.snapshot();
+        assertThat(histogram.getCount()).isEqualTo(4 * latenciesPerThread);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(1);
+        assertThat(histogram.getValueAtPercentile(50.01)).isGreaterThanOrEqualTo(1000);
+        assertThat(snapshot.getValueAtPercentile(50)).isEqualTo(1);
+        assertThat(snapshot.getValueAtPercentile(50.01)).isGreaterThanOrEqualTo(1000);
+    }
+
+}
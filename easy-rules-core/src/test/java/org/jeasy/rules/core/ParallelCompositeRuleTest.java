@@ -0,0 +1,288 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.jeasy.rules.core.ParallelCompositeRule.Semantics.ALL;
+import static org.jeasy.rules.core.ParallelCompositeRule.Semantics.ANY;
+import static org.jeasy.rules.core.ParallelCompositeRule.Semantics.ONE;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class of composite rules evaluating conditions concurrently, see {@link ParallelCompositeRule}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ParallelCompositeRuleTest {
+
+    private final List<String> executions = new CopyOnWriteArrayList<>();
+
+    private ExecutorService executor;
+
+    private Facts facts;
+
+    @Before
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        facts = new Facts();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void andRuleShouldBeTriggeredWhenAllConditionsAreTrue() {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("and", "", 1, ALL, executor);
+        compositeRule.addRule(new StubRule("first", 1, true));
+        compositeRule.addRule(new StubRule("second", 2, true));
+
+        assertThat(compositeRule.evaluate(facts)).isTrue();
+    }
+
+    @Test
+    public void andRuleShouldNotWaitForOtherConditionsOnceAConditionIsFalse() throws Exception {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("and", "", 1, ALL, executor);
+        BlockingRule blockingRule = new BlockingRule("blocking", 1);
+        compositeRule.addRule(blockingRule);
+        compositeRule.addRule(new StubRule("false", 2, false, blockingRule));
+
+        assertThat(compositeRule.evaluate(facts)).isFalse();
+
+        assertThat(blockingRule.interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void orRuleShouldNotWaitForOtherConditionsOnceAConditionIsTrue() throws Exception {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("or", "", 1, ANY, executor);
+        BlockingRule blockingRule = new BlockingRule("blocking", 1);
+        compositeRule.addRule(blockingRule);
+        compositeRule.addRule(new StubRule("true", 2, true, blockingRule));
+
+        assertThat(compositeRule.evaluate(facts)).isTrue();
+
+        assertThat(blockingRule.interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void orRuleShouldNotBeTriggeredWhenAllConditionsAreFalse() {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("or", "", 1, ANY, executor);
+        compositeRule.addRule(new StubRule("first", 1, false));
+        compositeRule.addRule(new StubRule("second", 2, false));
+
+        assertThat(compositeRule.evaluate(facts)).isFalse();
+    }
+
+    @Test
+    public void xorRuleShouldBeTriggeredWhenExactlyOneConditionIsTrue() {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("xor", "", 1, ONE, executor);
+        compositeRule.addRule(new StubRule("first", 1, false));
+        compositeRule.addRule(new StubRule("second", 2, true));
+        compositeRule.addRule(new StubRule("third", 3, false));
+
+        assertThat(compositeRule.evaluate(facts)).isTrue();
+    }
+
+    @Test
+    public void xorRuleShouldNotWaitForOtherConditionsOnceASecondConditionIsTrue() throws Exception {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("xor", "", 1, ONE, executor);
+        BlockingRule blockingRule = new BlockingRule("blocking", 1);
+        compositeRule.addRule(blockingRule);
+        compositeRule.addRule(new StubRule("first", 2, true, blockingRule));
+        compositeRule.addRule(new StubRule("second", 3, true, blockingRule));
+
+        assertThat(compositeRule.evaluate(facts)).isFalse();
+
+        assertThat(blockingRule.interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void xorRuleShouldNotBeTriggeredWhenNoConditionIsTrue() {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("xor", "", 1, ONE, executor);
+        compositeRule.addRule(new StubRule("first", 1, false));
+        compositeRule.addRule(new StubRule("second", 2, false));
+
+        assertThat(compositeRule.evaluate(facts)).isFalse();
+    }
+
+    @Test
+    public void exceptionThrownByAConditionShouldBeThrownByTheCompositeRule() throws Exception {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("and", "", 1, ALL, executor);
+        final BlockingRule blockingRule = new BlockingRule("blocking", 1);
+        compositeRule.addRule(blockingRule);
+        compositeRule.addRule(new BasicRule("failing", "", 2) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                blockingRule.awaitStarted();
+                throw new IllegalStateException("failure");
+            }
+        });
+
+        try {
+            compositeRule.evaluate(facts);
+            fail("The exception thrown by the condition should be thrown again");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("failure");
+        }
+        assertThat(blockingRule.interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void checkedExceptionThrownByAConditionShouldBeWrapped() {
+        final Exception checkedException = new Exception("failure");
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("and", "", 1, ALL, executor);
+        compositeRule.addRule(new StubRule("first", 1, true));
+        compositeRule.addRule(new BasicRule("failing", "", 2) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                return ParallelCompositeRuleTest.<RuntimeException>sneakyThrow(checkedException);
+            }
+        });
+
+        try {
+            compositeRule.evaluate(facts);
+            fail("The checked exception thrown by the condition should be wrapped");
+        } catch (RuntimeException e) {
+            assertThat(e).hasCause(checkedException);
+        }
+    }
+
+    @Test
+    public void actionsOfAllComposingRulesShouldBeExecutedInTheirNaturalOrder() {
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule("or", "", 1, ANY, executor);
+        compositeRule.addRule(new StubRule("second", 2, true));
+        compositeRule.addRule(new StubRule("first", 1, false));
+        RulesEngine rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+
+        rulesEngine.fire(new Rules(compositeRule), facts);
+
+        assertThat(executions).containsExactly("first", "second");
+    }
+
+    @Test
+    public void singleComposingRuleShouldBeEvaluatedInTheCallingThread() {
+        final Thread caller = Thread.currentThread();
+        ParallelCompositeRule compositeRule = new ParallelCompositeRule(ONE);
+        compositeRule.addRule(new BasicRule("single") {
+            @Override
+            public boolean evaluate(Facts facts) {
+                return Thread.currentThread() == caller;
+            }
+        });
+
+        assertThat(compositeRule.evaluate(facts)).isTrue();
+    }
+
+    @Test
+    public void whenNoComposingRulesAreRegistered_thenParallelCompositeRuleShouldEvaluateToFalse() {
+        assertThat(new ParallelCompositeRule(ALL).evaluate(facts)).isFalse();
+        assertThat(new ParallelCompositeRule(ANY).evaluate(facts)).isFalse();
+        assertThat(new ParallelCompositeRule(ONE).evaluate(facts)).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> boolean sneakyThrow(Throwable throwable) throws T {
+        throw (T) throwable;
+    }
+
+    private class StubRule extends BasicRule {
+
+        private final boolean result;
+
+        private final BlockingRule blockingRule;
+
+        StubRule(String name, int priority, boolean result) {
+            this(name, priority, result, null);
+        }
+
+        /*
+         * A rule evaluated once the evaluation of the blocking rule has started, so that it is interrupted.
+         */
+        StubRule(String name, int priority, boolean result, BlockingRule blockingRule) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+            this.result = result;
+            this.blockingRule = blockingRule;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            if (blockingRule != null) {
+                blockingRule.awaitStarted();
+            }
+            return result;
+        }
+
+        @Override
+        public void execute(Facts facts) {
+            executions.add(getName());
+        }
+    }
+
+    private static class BlockingRule extends BasicRule {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        BlockingRule(String name, int priority) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return true;
+        }
+
+        void awaitStarted() {
+            try {
+                started.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
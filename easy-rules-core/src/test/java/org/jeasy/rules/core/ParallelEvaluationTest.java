@@ -0,0 +1,155 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class of "parallel evaluation" parameter of Easy Rules default engine.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ParallelEvaluationTest extends AbstractTest {
+
+    @Mock
+    private RuleListener ruleListener;
+
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+
+        when(rule1.getName()).thenReturn("r1");
+        when(rule1.getPriority()).thenReturn(1);
+        when(rule2.getName()).thenReturn("r2");
+        when(rule2.getPriority()).thenReturn(2);
+        when(rule2.compareTo(rule1)).thenReturn(1);
+        rules = new Rules(rule1, rule2);
+
+        rulesEngine = aNewRulesEngine()
+                .withParallelEvaluation(true)
+                .build();
+    }
+
+    @Test
+    public void actionsShouldBeExecutedInTheNaturalOrderOfRules() throws Exception {
+        when(rule1.evaluate(facts)).thenReturn(true);
+        when(rule2.evaluate(facts)).thenReturn(true);
+
+        rulesEngine.fire(rules, facts);
+
+        InOrder inOrder = inOrder(rule1, rule2);
+        inOrder.verify(rule1).execute(facts);
+        inOrder.verify(rule2).execute(facts);
+    }
+
+    @Test
+    public void skipParametersShouldBeHonoured() throws Exception {
+        when(rule1.evaluate(facts)).thenReturn(true);
+        rulesEngine = aNewRulesEngine()
+                .withParallelEvaluation(true)
+                .withSkipOnFirstAppliedRule(true)
+                .build();
+
+        rulesEngine.fire(rules, facts);
+
+        verify(rule1).execute(facts);
+        verify(rule2, never()).execute(facts);
+    }
+
+    @Test
+    public void rulesOverPriorityThresholdShouldNotBeEvaluated() throws Exception {
+        when(rule1.evaluate(facts)).thenReturn(true);
+        rulesEngine = aNewRulesEngine()
+                .withParallelEvaluation(true)
+                .withRulePriorityThreshold(1)
+                .build();
+
+        rulesEngine.fire(rules, facts);
+
+        verify(rule1).execute(facts);
+        verify(rule2, never()).evaluate(facts);
+    }
+
+    @Test
+    public void rulesSkippedByListenersShouldNotBeEvaluated() throws Exception {
+        when(ruleListener.beforeEvaluate(rule1, facts)).thenReturn(false);
+        when(ruleListener.beforeEvaluate(rule2, facts)).thenReturn(true);
+        rulesEngine = aNewRulesEngine()
+                .withParallelEvaluation(true)
+                .withRuleListener(ruleListener)
+                .build();
+
+        rulesEngine.fire(rules, facts);
+
+        verify(rule1, never()).evaluate(facts);
+        verify(rule2).evaluate(facts);
+    }
+
+    @Test
+    public void conditionsShouldBeEvaluatedOnTheGivenExecutor() throws Exception {
+        final AtomicInteger submissions = new AtomicInteger();
+        rulesEngine = aNewRulesEngine()
+                .withParallelEvaluation(true)
+                .withEvaluationExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        submissions.incrementAndGet();
+                        command.run();
+                    }
+                })
+                .build();
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(submissions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void exceptionThrownByConditionShouldBePropagatedAsIs() throws Exception {
+        IllegalStateException exception = new IllegalStateException("fatal error!");
+        when(rule1.evaluate(facts)).thenThrow(exception);
+
+        try {
+            rulesEngine.fire(rules, facts);
+            fail("The condition exception should have been propagated");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.DeclarativeRuleBuilder.aNewRule;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link ReteRulesEngine}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ReteRulesEngineTest {
+
+    private static final Predicate<Boolean> IS_TRUE = new Predicate<Boolean>() {
+        @Override
+        public boolean test(Boolean value) {
+            return value;
+        }
+    };
+
+    private static final Predicate<Boolean> IS_FALSE = IS_TRUE.negate();
+
+    private static final Predicate<Object> IS_NOT_NULL = new Predicate<Object>() {
+        @Override
+        public boolean test(Object value) {
+            return value != null;
+        }
+    };
+
+    private RulesEngine rulesEngine;
+
+    private Facts facts;
+
+    @Before
+    public void setup() {
+        rulesEngine = aNewRulesEngine().withRete(true).withSilentMode(true).build();
+        facts = new Facts();
+        facts.addBoolean("fire", true);
+        facts.addBoolean("alarm", false);
+        facts.addBoolean("sprinkler", false);
+    }
+
+    @Test
+    public void builderShouldCreateAReteEngine() {
+        assertThat(rulesEngine).isInstanceOf(ReteRulesEngine.class);
+    }
+
+    @Test
+    public void rulesShouldBeAppliedUntilNoRuleIsMatched() {
+        Rules rules = new Rules(
+                aNewRule().named("raise alarm").withPriority(1)
+                        .when("fire", IS_TRUE).when("alarm", IS_FALSE)
+                        .then(set("alarm", true)).build(),
+                aNewRule().named("turn sprinkler on").withPriority(2)
+                        .when("fire", IS_TRUE).when("sprinkler", IS_FALSE)
+                        .then(set("sprinkler", true)).build(),
+                aNewRule().named("put out fire").withPriority(3)
+                        .when("fire", IS_TRUE).when("sprinkler", IS_TRUE)
+                        .then(set("fire", false)).build(),
+                aNewRule().named("cancel alarm").withPriority(4)
+                        .when("fire", IS_FALSE).when("alarm", IS_TRUE)
+                        .then(set("alarm", false)).build());
+
+        BitSet applied = rulesEngine.fireAll(rules, Collections.singletonList(facts)).get(0);
+
+        assertThat(applied.cardinality()).isEqualTo(4);
+        assertThat(facts.getBoolean("fire")).isFalse();
+        assertThat(facts.getBoolean("alarm")).isFalse();
+        assertThat(facts.getBoolean("sprinkler")).isTrue();
+    }
+
+    @Test
+    public void equalConditionsShouldBeTestedOncePerChangeOfTheirFact() {
+        final AtomicInteger tests = new AtomicInteger();
+        FactCondition fireIsOn = FactCondition.of("fire", new Predicate<Boolean>() {
+            @Override
+            public boolean test(Boolean value) {
+                tests.incrementAndGet();
+                return value;
+            }
+        });
+        Rules rules = new Rules(
+                aNewRule().named("r1").when(fireIsOn).then(set("alarm", true)).build(),
+                aNewRule().named("r2").when(fireIsOn).then(set("sprinkler", true)).build(),
+                aNewRule().named("r3").when(fireIsOn).when("alarm", IS_TRUE).then(set("fire", false)).build());
+
+        rulesEngine.fire(rules, facts);
+
+        // tested initially, then once after "fire" changed
+        assertThat(tests.get()).isEqualTo(2);
+        assertThat(facts.getBoolean("fire")).isFalse();
+        assertThat(facts.getBoolean("sprinkler")).isTrue();
+    }
+
+    @Test
+    public void ruleShouldNotBeAppliedWhenAConditionIsNoLongerMatched() {
+        Rules rules = new Rules(
+                aNewRule().named("put out fire").withPriority(1)
+                        .when("fire", IS_TRUE).then(set("fire", false)).build(),
+                aNewRule().named("raise alarm").withPriority(2)
+                        .when("fire", IS_TRUE).then(set("alarm", true)).build());
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(facts.getBoolean("alarm")).isFalse();
+    }
+
+    @Test
+    public void missingFactShouldNotMatchUntilItIsAdded() {
+        Rules rules = new Rules(
+                aNewRule().named("greet").withPriority(1)
+                        .when("name", IS_NOT_NULL).then(set("greeted", true)).build(),
+                aNewRule().named("name").withPriority(2)
+                        .when("fire", IS_TRUE).then(new Consumer<Facts>() {
+                            @Override
+                            public void accept(Facts facts) {
+                                facts.add("name", "foo");
+                            }
+                        }).build());
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(facts.getBoolean("greeted")).isTrue();
+    }
+
+    @Test
+    public void opaqueRulesShouldBeEvaluatedWhenFactsTheyReadChange() {
+        OpaqueAlarmRule opaqueRule = new OpaqueAlarmRule();
+        Rules rules = new Rules(
+                aNewRule().named("raise alarm").withPriority(1)
+                        .when("fire", IS_TRUE).when("alarm", IS_FALSE)
+                        .then(set("alarm", true)).build(),
+                opaqueRule);
+
+        rulesEngine.fire(rules, facts);
+
+        assertThat(opaqueRule.evaluations).isEqualTo(2);
+        assertThat(facts.getBoolean("sprinkler")).isTrue();
+    }
+
+    @Test
+    public void listenersShouldBeNotifiedForMatchedRules() {
+        final List<String> events = new ArrayList<>();
+        rulesEngine = aNewRulesEngine().withRete(true).withSilentMode(true).withRuleListener(new RuleListener() {
+            @Override
+            public boolean beforeEvaluate(Rule rule, Facts facts) {
+                events.add("before evaluate " + rule.getName());
+                return true;
+            }
+
+            @Override
+            public void afterEvaluate(Rule rule, boolean evaluationResult) {
+                events.add("after evaluate " + rule.getName() + " " + evaluationResult);
+            }
+
+            @Override
+            public void beforeExecute(Rule rule, Facts facts) {
+            }
+
+            @Override
+            public void onSuccess(Rule rule, Facts facts) {
+                events.add("success " + rule.getName());
+            }
+
+            @Override
+            public void onFailure(Rule rule, Exception exception, Facts facts) {
+            }
+        }).build();
+
+        rulesEngine.fire(new Rules(aNewRule().named("raise alarm").when("fire", IS_TRUE).when("alarm", IS_FALSE)
+                .then(set("alarm", true)).build()), facts);
+
+        assertThat(events).containsExactly("before evaluate raise alarm", "after evaluate raise alarm true",
+                "success raise alarm");
+    }
+
+    @Test
+    public void networkShouldBeSharedByEnginesHavingDifferentPriorityThresholds() {
+        CompiledRules rules = new Rules(
+                aNewRule().named("raise alarm").withPriority(1)
+                        .when("fire", IS_TRUE).then(set("alarm", true)).build(),
+                aNewRule().named("turn sprinkler on").withPriority(2)
+                        .when("alarm", IS_TRUE).then(set("sprinkler", true)).build()).compile();
+        RulesEngine thresholdEngine = aNewRulesEngine().withRete(true).withRulePriorityThreshold(1)
+                .withSilentMode(true).build();
+
+        thresholdEngine.fire(rules, facts);
+        ReteNetwork network = ReteNetwork.of(rules);
+
+        assertThat(facts.getBoolean("alarm")).isTrue();
+        assertThat(facts.getBoolean("sprinkler")).isFalse();
+        rulesEngine.fire(rules, facts);
+        assertThat(facts.getBoolean("sprinkler")).isTrue();
+        assertThat(ReteNetwork.of(rules)).isSameAs(network);
+    }
+
+    @Test
+    public void matchingShouldStopAtTheMaximumNumberOfCycles() {
+        rulesEngine = aNewRulesEngine().withRete(true).withMaxInferenceCycles(3).withSilentMode(true).build();
+        final AtomicInteger executions = new AtomicInteger();
+        Rule toggle = aNewRule().when("fire", IS_TRUE).then(new Consumer<Facts>() {
+            @Override
+            public void accept(Facts facts) {
+                executions.incrementAndGet();
+                facts.addBoolean("fire", true);
+            }
+        }).build();
+
+        rulesEngine.fire(new Rules(toggle), facts);
+
+        assertThat(executions.get()).isEqualTo(3);
+    }
+
+    private static Consumer<Facts> set(final String fact, final boolean value) {
+        return new Consumer<Facts>() {
+            @Override
+            public void accept(Facts facts) {
+                facts.addBoolean(fact, value);
+            }
+        };
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class OpaqueAlarmRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("alarm") boolean alarm) {
+            evaluations++;
+            return alarm;
+        }
+
+        @Action
+        public void then(Facts facts) {
+            facts.addBoolean("sprinkler", true);
+        }
+
+        @Priority
+        public int getPriority() {
+            return 0;
+        }
+    }
+
+}
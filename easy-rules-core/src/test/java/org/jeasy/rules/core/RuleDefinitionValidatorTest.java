@@ -28,6 +28,9 @@ import org.jeasy.rules.annotation.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
 public class RuleDefinitionValidatorTest {
 
     private RuleDefinitionValidator ruleDefinitionValidator;
@@ -68,6 +71,11 @@ public class RuleDefinitionValidatorTest {
         ruleDefinitionValidator.validateRuleDefinition(new AnnotatedRuleWithConditionMethodHavingOneArgumentNotOfTypeFacts());
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void deterministicConditionMethodMustNotHaveAParameterOfTypeFacts() {
+        ruleDefinitionValidator.validateRuleDefinition(new AnnotatedRuleWithDeterministicConditionMethodHavingFactsParameter());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void conditionMethodMustReturnBooleanType() {
         ruleDefinitionValidator.validateRuleDefinition(new AnnotatedRuleWithConditionMethodHavingNonBooleanReturnType());
@@ -114,4 +122,20 @@ public class RuleDefinitionValidatorTest {
     public void priorityMethodReturnTypeMustBeInteger() {
         ruleDefinitionValidator.validateRuleDefinition(new AnnotatedRuleWithPriorityMethodHavingNonIntegerReturnType());
     }
+
+    /*
+     * Validation cache tests
+     */
+    @Test
+    public void validationErrorShouldBeReportedForEachRuleOfAnInvalidClass() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                ruleDefinitionValidator.validateRuleDefinition(new AnnotatedRuleWithoutCondition());
+                fail("An invalid rule definition must not be accepted");
+            } catch (IllegalArgumentException e) {
+                assertThat(e).hasMessage("Rule '" + AnnotatedRuleWithoutCondition.class.getName()
+                        + "' must have a public method annotated with '" + Condition.class.getName() + "'");
+            }
+        }
+    }
 }
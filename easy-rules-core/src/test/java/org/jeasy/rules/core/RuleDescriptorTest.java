@@ -0,0 +1,125 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.annotation.Rule;
+import org.jeasy.rules.api.Facts;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleDescriptorTest {
+
+    @Test
+    public void descriptorShouldBeComputedOncePerClass() {
+        RuleDescriptor descriptor = RuleDescriptor.of(MyRule.class);
+
+        assertThat(RuleDescriptor.of(new MyRule().getClass())).isSameAs(descriptor);
+    }
+
+    @Test
+    public void descriptorShouldHoldRuleMetadata() throws Exception {
+        RuleDescriptor descriptor = RuleDescriptor.of(MyRule.class);
+
+        assertThat(descriptor.getName()).isEqualTo("MyRule");
+        assertThat(descriptor.getDescription()).isEqualTo("when when then first,second");
+        assertThat(descriptor.getConditionMethod().getMethod().getName()).isEqualTo("when");
+        assertThat(descriptor.getActionMethods()).extracting("method.name").containsExactly("first", "second");
+        assertThat(descriptor.hasPriorityMethod()).isTrue();
+        assertThat(descriptor.hasCompareToMethod()).isFalse();
+    }
+
+    @Test
+    public void conditionMethodShouldBeInvokedWithResolvedFacts() throws Throwable {
+        Facts facts = new Facts();
+        facts.add("age", 18);
+
+        Object result = RuleDescriptor.of(MyRule.class).getConditionMethod().invoke(new MyRule(), facts);
+
+        assertThat(result).isEqualTo(true);
+    }
+
+    @Test
+    public void priorityMethodShouldBeInvokedOnTarget() throws Throwable {
+        RuleDescriptor descriptor = RuleDescriptor.of(MyRule.class);
+
+        assertThat(descriptor.hasPriorityMethod()).isTrue();
+        assertThat(descriptor.invokePriorityMethod(new MyRule())).isEqualTo(1);
+    }
+
+    @Test
+    public void proxyShouldUsePriorityAndCompareToMethodsOfTheRule() {
+        org.jeasy.rules.api.Rule myRule = RuleProxy.asRule(new MyRule());
+        org.jeasy.rules.api.Rule comparableRule = RuleProxy.asRule(new ComparableRule());
+        org.jeasy.rules.api.Rule basicRule = new BasicRule("rule", "", 0);
+
+        assertThat(myRule.getPriority()).isEqualTo(1);
+        assertThat(myRule.compareTo(basicRule)).isPositive();
+        assertThat(comparableRule.getPriority()).isEqualTo(org.jeasy.rules.api.Rule.DEFAULT_PRIORITY);
+        assertThat(comparableRule.compareTo(basicRule)).isEqualTo(-42);
+    }
+
+    @Rule
+    public static class ComparableRule {
+
+        @Condition
+        public boolean when() {
+            return true;
+        }
+
+        @Action
+        public void then() {
+        }
+
+        public int compareTo(org.jeasy.rules.api.Rule rule) {
+            return -42;
+        }
+    }
+
+    @Rule
+    public static class MyRule {
+
+        @Condition
+        public boolean when(@Fact("age") int age, Facts facts) {
+            return age >= 18 && facts != null;
+        }
+
+        @Action(order = 2)
+        public void second() {
+        }
+
+        @Action(order = 1)
+        public void first(@Fact("age") int age) {
+        }
+
+        @Priority
+        public int priority() {
+            return 1;
+        }
+    }
+}
@@ -23,11 +23,26 @@
  */
 package org.jeasy.rules.core;
 
+import org.jeasy.rules.annotation.Action;
 import org.jeasy.rules.annotation.AnnotatedRuleWithMetaRuleAnnotation;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.api.FactSchema;
+import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
 import org.junit.Test;
 
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 public class RuleProxyTest {
 
@@ -40,4 +55,208 @@ public class RuleProxyTest {
         assertNotNull(rule.getDescription());
         assertNotNull(rule.getName());
     }
+
+    @Test
+    public void exceptionThrownByActionMethodShouldBePropagatedAsIs() {
+        Rule rule = RuleProxy.asRule(new FailingRule());
+
+        try {
+            rule.execute(new Facts());
+            fail("The action exception should have been propagated");
+        } catch (Exception e) {
+            assertSame(FailingRule.EXCEPTION, e);
+        }
+    }
+
+    @Test
+    public void annotatedRuleShouldBeAdaptedWithoutDynamicProxy() {
+        Rule rule = RuleProxy.asRule(new FailingRule());
+
+        assertFalse(Proxy.isProxyClass(rule.getClass()));
+        assertSame(RuleProxy.class, rule.getClass());
+    }
+
+    @Test
+    public void checkedExceptionThrownByConditionMethodShouldBeWrapped() {
+        Rule rule = RuleProxy.asRule(new FailingConditionRule());
+
+        try {
+            rule.evaluate(new Facts());
+            fail("The condition exception should have been propagated");
+        } catch (UndeclaredThrowableException e) {
+            assertSame(FailingRule.EXCEPTION, e.getUndeclaredThrowable());
+        }
+    }
+
+    @Test
+    public void declaredFactsShouldBeResolvedFromSchemaSlots() throws Exception {
+        AdultRule adultRule = new AdultRule();
+        Rules rules = new Rules(adultRule);
+        FactSchema schema = rules.getFactSchema();
+        Facts facts = new Facts(schema);
+        facts.add("age", 18);
+        facts.add("name", "foo");
+
+        Rule rule = rules.iterator().next();
+
+        assertThat(schema.getNames()).containsExactly("age", "name");
+        assertThat(rule.getFactNames()).containsExactly("age", "name");
+        assertThat(rule.evaluate(facts)).isTrue();
+        rule.execute(facts);
+        assertThat(adultRule.name).isEqualTo("foo");
+
+        Facts otherFacts = new Facts(FactSchema.of("name", "age"));
+        otherFacts.add("age", 17);
+        assertThat(rule.evaluate(otherFacts)).isFalse();
+    }
+
+    @Test
+    public void factsShouldBeResolvedFromSlotsOfAlternatingSchemas() throws Exception {
+        Rule rule = RuleProxy.asRule(new AdultRule());
+        Facts[] facts = new Facts[10];
+        for (int i = 0; i < facts.length; i++) {
+            String[] names = new String[i + 2];
+            for (int j = 0; j < i; j++) {
+                names[j] = "fact" + j;
+            }
+            names[i] = i % 2 == 0 ? "age" : "name";
+            names[i + 1] = i % 2 == 0 ? "name" : "age";
+            facts[i] = new Facts(FactSchema.of(names));
+            facts[i].add("age", 16 + i);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < facts.length; i++) {
+                assertThat(rule.evaluate(facts[i])).isEqualTo(16 + i >= 18);
+            }
+        }
+    }
+
+    @Test
+    public void actionsWithTheSameOrderShouldBeExecutedByNameThenParameterTypes() throws Exception {
+        SameOrderRule sameOrderRule = new SameOrderRule();
+        Facts facts = new Facts();
+        facts.add("numbers", new int[0]);
+
+        RuleProxy.asRule(sameOrderRule).execute(facts);
+
+        assertThat(sameOrderRule.sequence).containsExactly("first", "a()", "a(int[])", "a(Facts)", "b");
+    }
+
+    @Test
+    public void primitiveFactsShouldBeInjectedInPrimitiveParameters() throws Exception {
+        Rule rule = RuleProxy.asRule(new AdultRule());
+        Facts facts = new Facts();
+        facts.addInt("age", 18);
+
+        assertThat(rule.evaluate(facts)).isTrue();
+
+        facts.addInt("age", 17);
+        assertThat(rule.evaluate(facts)).isFalse();
+
+        Facts slotFacts = new Facts(FactSchema.of("age"));
+        slotFacts.addInt("age", 20);
+        assertThat(rule.evaluate(slotFacts)).isTrue();
+    }
+
+    @Test
+    public void staticRuleMethodsShouldBeInvoked() {
+        Rule rule = RuleProxy.asRule(new StaticConditionRule());
+
+        assertThat(rule.evaluate(new Facts())).isTrue();
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    static class SameOrderRule {
+
+        private final List<String> sequence = new ArrayList<>();
+
+        @Condition
+        public boolean when() {
+            return true;
+        }
+
+        @Action
+        public void b() {
+            sequence.add("b");
+        }
+
+        @Action
+        public void a(@Fact("numbers") int[] numbers) {
+            sequence.add("a(int[])");
+        }
+
+        @Action
+        public void a(Facts facts) {
+            sequence.add("a(Facts)");
+        }
+
+        @Action
+        public void a() {
+            sequence.add("a()");
+        }
+
+        @Action(order = -1)
+        public void first() {
+            sequence.add("first");
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    static class AdultRule {
+
+        private String name;
+
+        @Condition
+        public boolean isAdult(@Fact("age") int age) {
+            return age >= 18;
+        }
+
+        @Action
+        public void then(@Fact("name") String name) {
+            this.name = name;
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    static class StaticConditionRule {
+
+        @Condition
+        public static boolean when() {
+            return true;
+        }
+
+        @Action
+        public void then() {
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    static class FailingConditionRule {
+
+        @Condition
+        public boolean when() throws Exception {
+            throw FailingRule.EXCEPTION;
+        }
+
+        @Action
+        public void then() {
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    static class FailingRule {
+
+        static final Exception EXCEPTION = new Exception("fatal error!");
+
+        @Condition
+        public boolean when() {
+            return true;
+        }
+
+        @Action
+        public void then() throws Exception {
+            throw EXCEPTION;
+        }
+    }
 }
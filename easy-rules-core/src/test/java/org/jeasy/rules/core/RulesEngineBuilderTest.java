@@ -78,4 +78,29 @@ public class RulesEngineBuilderTest {
         assertThat(parameters.isSkipOnFirstFailedRule()).isTrue();
         assertThat(parameters.isSkipOnFirstNonTriggeredRule()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void engineShouldNotBeAffectedByChangesAfterItsCreation() {
+        RulesEngineBuilder builder = RulesEngineBuilder.aNewRulesEngine()
+                .withRulePriorityThreshold(10);
+        RulesEngine rulesEngine = builder.build();
+
+        builder.withRulePriorityThreshold(20).withRuleListener(ruleListener);
+        rulesEngine.getParameters().setPriorityThreshold(30);
+
+        assertThat(rulesEngine.getParameters().getPriorityThreshold()).isEqualTo(10);
+        assertThat(rulesEngine.getRuleListeners()).isEmpty();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void ruleListenersOfEngineShouldNotBeModifiable() {
+        RulesEngine rulesEngine = RulesEngineBuilder.aNewRulesEngine().build();
+
+        rulesEngine.getRuleListeners().add(ruleListener);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void reteAndInferenceEnginesShouldNotBeCombined() {
+        RulesEngineBuilder.aNewRulesEngine().withRete(true).withInference(true).build();
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link RulesEngineMonitor}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RulesEngineMonitorTest {
+
+    private MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private ObjectName objectName = RulesEngineMonitor.getObjectName("monitored engine");
+
+    private RulesEngine rulesEngine;
+
+    private RulesEngineMXBean monitor;
+
+    private CountingRule rule1, rule2;
+
+    private Rules rules;
+
+    @Before
+    public void setup() {
+        rulesEngine = aNewRulesEngine().named("monitored engine").withMBeanRegistration(true).withSilentMode(true).build();
+        monitor = JMX.newMXBeanProxy(mBeanServer, objectName, RulesEngineMXBean.class);
+        rule1 = new CountingRule("r1", 1, true);
+        rule2 = new CountingRule("r2", 2, false);
+        rules = new Rules(rule1, rule2);
+    }
+
+    @After
+    public void tearDown() {
+        rulesEngine.close();
+    }
+
+    @Test
+    public void engineShouldBeRegisteredInThePlatformMBeanServer() {
+        assertThat(mBeanServer.isRegistered(objectName)).isTrue();
+        assertThat(monitor.getName()).isEqualTo("monitored engine");
+    }
+
+    @Test
+    public void engineShouldBeUnregisteredWhenClosed() {
+        rulesEngine.close();
+
+        assertThat(mBeanServer.isRegistered(objectName)).isFalse();
+        RulesEngine replacement = aNewRulesEngine().named("monitored engine").withMBeanRegistration(true).build();
+        assertThat(mBeanServer.isRegistered(objectName)).isTrue();
+        replacement.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registeringAnEngineWithTheNameOfARegisteredEngineShouldFail() {
+        aNewRulesEngine().named("monitored engine").withMBeanRegistration(true).build();
+    }
+
+    @Test
+    public void monitorShouldReportStatisticsOfTheEngine() {
+        rulesEngine.fire(rules, new Facts());
+        rulesEngine.fire(rules, new Facts());
+
+        assertThat(monitor.getFireCount()).isEqualTo(2);
+        assertThat(monitor.getRegisteredRules()).isEqualTo(2);
+        assertThat(monitor.getMaxFireLatency()).isGreaterThan(0);
+        assertThat(monitor.getTriggerRatios()).containsEntry("r1", 1.0).containsEntry("r2", 0.0);
+        assertThat(monitor.slowestRules(5)).hasSize(2);
+        assertThat(monitor.slowestRules(1)).hasSize(1);
+
+        monitor.resetStatistics();
+
+        assertThat(monitor.getFireCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void priorityThresholdShouldBeTunableAtRuntime() {
+        monitor.setPriorityThreshold(1);
+
+        rulesEngine.fire(rules, new Facts());
+
+        assertThat(monitor.getPriorityThreshold()).isEqualTo(1);
+        assertThat(rulesEngine.getParameters().getPriorityThreshold()).isEqualTo(1);
+        assertThat(rule1.evaluations.get()).isEqualTo(1);
+        assertThat(rule2.evaluations.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void skipFlagsShouldBeTunableAtRuntime() {
+        monitor.setSkipOnFirstAppliedRule(true);
+        monitor.setSkipOnFirstNonTriggeredRule(true);
+        monitor.setSkipOnFirstFailedRule(true);
+
+        rulesEngine.fire(rules, new Facts());
+
+        assertThat(monitor.isSkipOnFirstAppliedRule()).isTrue();
+        assertThat(monitor.isSkipOnFirstNonTriggeredRule()).isTrue();
+        assertThat(monitor.isSkipOnFirstFailedRule()).isTrue();
+        assertThat(rule2.evaluations.get()).isEqualTo(0);
+    }
+
+    private static class CountingRule extends BasicRule {
+
+        private final AtomicInteger evaluations = new AtomicInteger();
+
+        private final boolean evaluationResult;
+
+        CountingRule(String name, int priority, boolean evaluationResult) {
+            super(name, Rule.DEFAULT_DESCRIPTION, priority);
+            this.evaluationResult = evaluationResult;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            evaluations.incrementAndGet();
+            return evaluationResult;
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.flow;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Publisher of the results of firing rules on each facts published by a source publisher.
+ *
+ * Facts are requested from the source only as results are requested by the subscriber, and at most
+ * {@code maxInFlight} facts are requested from the source but not yet delivered as results, so
+ * neither fires nor results are buffered without bounds. Rules are fired on the given executor.
+ *
+ * Results are published as soon as they are available when the publisher is unordered. When it is
+ * ordered by key, facts having the same key are fired one at a time and their results are published
+ * in the order of the facts, while facts having different keys are fired concurrently.
+ *
+ * An exception thrown while firing rules (by a condition for instance) cancels the source and is
+ * signalled to the subscriber. Each subscriber subscribes to the source once.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class FirePublisher implements Flow.Publisher<FireResult> {
+
+    private final RulesEngine rulesEngine;
+
+    private final CompiledRules rules;
+
+    private final Flow.Publisher<Facts> source;
+
+    private final int maxInFlight;
+
+    /*
+     * Ordering key of facts, null when results are unordered.
+     */
+    private final Function<? super Facts, ?> orderingKey;
+
+    private final Executor executor;
+
+    private FirePublisher(final RulesEngine rulesEngine, final Rules rules, final Flow.Publisher<Facts> source,
+                          final int maxInFlight, final Function<? super Facts, ?> orderingKey, final Executor executor) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.rulesEngine = Objects.requireNonNull(rulesEngine);
+        this.rules = rules.compile();
+        this.source = Objects.requireNonNull(source);
+        this.maxInFlight = maxInFlight;
+        this.orderingKey = orderingKey;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Create a publisher of results in the order fires complete.
+     *
+     * @param rulesEngine engine firing rules
+     * @param rules to fire on each facts
+     * @param source publisher of facts
+     * @param maxInFlight maximum number of facts requested from the source and not yet published as results
+     * @param executor executor of fires
+     * @return a publisher of fire results
+     */
+    public static FirePublisher unordered(final RulesEngine rulesEngine, final Rules rules, final Flow.Publisher<Facts> source,
+                                          final int maxInFlight, final Executor executor) {
+        return new FirePublisher(rulesEngine, rules, source, maxInFlight, null, executor);
+    }
+
+    /**
+     * Create a publisher of results in the order of facts having the same key.
+     *
+     * @param rulesEngine engine firing rules
+     * @param rules to fire on each facts
+     * @param source publisher of facts
+     * @param maxInFlight maximum number of facts requested from the source and not yet published as results
+     * @param orderingKey key of facts which must be fired in order
+     * @param executor executor of fires
+     * @return a publisher of fire results
+     */
+    public static FirePublisher orderedByKey(final RulesEngine rulesEngine, final Rules rules, final Flow.Publisher<Facts> source,
+                                             final int maxInFlight, final Function<? super Facts, ?> orderingKey,
+                                             final Executor executor) {
+        return new FirePublisher(rulesEngine, rules, source, maxInFlight, Objects.requireNonNull(orderingKey), executor);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super FireResult> subscriber) {
+        source.subscribe(new FireSubscription(Objects.requireNonNull(subscriber)));
+    }
+
+    private FireResult fire(final Facts facts) {
+        return new FireResult(facts, rulesEngine.fireAndGetApplied(rules, facts));
+    }
+
+    /**
+     * Subscription of a subscriber, which is also the subscriber of the source.
+     */
+    private final class FireSubscription implements Flow.Subscriber<Facts>, Flow.Subscription {
+
+        private final Flow.Subscriber<? super FireResult> downstream;
+
+        private final Queue<FireResult> results = new ConcurrentLinkedQueue<>();
+
+        private final Map<Object, CompletableFuture<?>> lastFires = new ConcurrentHashMap<>();
+
+        private final AtomicLong demand = new AtomicLong();
+
+        /*
+         * Number of facts received from the source and not yet published as results.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private volatile Flow.Subscription upstream;
+
+        private volatile boolean upstreamDone;
+
+        private volatile boolean cancelled;
+
+        /*
+         * Number of facts requested from the source and not yet published as results, accessed by drain only.
+         */
+        private long outstanding;
+
+        FireSubscription(final Flow.Subscriber<? super FireResult> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            if (upstream != null) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            drain();
+        }
+
+        @Override
+        public void onNext(final Facts facts) {
+            pending.incrementAndGet();
+            if (orderingKey == null) {
+                CompletableFuture.supplyAsync(() -> fire(facts), executor).whenComplete(this::onFired);
+                return;
+            }
+            final Object key = orderingKey.apply(facts);
+            CompletableFuture<?> lastFire = lastFires.compute(key, (k, previousFire) -> {
+                CompletableFuture<FireResult> fire = previousFire == null
+                        ? CompletableFuture.supplyAsync(() -> fire(facts), executor)
+                        : previousFire.handleAsync((result, failure) -> fire(facts), executor);
+                // the next fire of the same key starts once the result of this one is queued
+                return fire.whenComplete(this::onFired);
+            });
+            lastFire.whenComplete((result, failure) -> lastFires.remove(key, lastFire));
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error.compareAndSet(null, throwable);
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                error.compareAndSet(null, new IllegalArgumentException("Requested results must be positive, got " + n));
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        private void onFired(final FireResult result, final Throwable failure) {
+            if (failure != null) {
+                error.compareAndSet(null, failure instanceof CompletionException ? failure.getCause() : failure);
+            } else {
+                results.offer(result);
+            }
+            drain();
+        }
+
+        /*
+         * Publish available results within the demand, request facts from the source and signal termination.
+         * Calls are serialized: a thread entering while another one is draining makes the latter loop again.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    results.clear();
+                    return;
+                }
+                Throwable failure = error.get();
+                if (failure != null) {
+                    cancel();
+                    results.clear();
+                    downstream.onError(failure);
+                    return;
+                }
+                long requested = demand.get();
+                long emitted = 0;
+                while (emitted != requested) {
+                    FireResult result = results.poll();
+                    if (result == null) {
+                        break;
+                    }
+                    downstream.onNext(result);
+                    emitted++;
+                    outstanding--;
+                    pending.decrementAndGet();
+                    if (cancelled) {
+                        return;
+                    }
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    requested = demand.addAndGet(-emitted);
+                }
+                if (upstreamDone) {
+                    if (pending.get() == 0) {
+                        cancelled = true;
+                        downstream.onComplete();
+                        return;
+                    }
+                } else {
+                    long capacity = Math.min(maxInFlight, requested) - outstanding;
+                    if (capacity > 0) {
+                        outstanding += capacity;
+                        upstream.request(capacity);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.flow;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+
+import java.util.BitSet;
+
+/**
+ * Result of firing rules on facts published by a {@link FirePublisher}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class FireResult {
+
+    private final Facts facts;
+
+    private final BitSet appliedRules;
+
+    FireResult(final Facts facts, final BitSet appliedRules) {
+        this.facts = facts;
+        this.appliedRules = appliedRules;
+    }
+
+    /**
+     * Return the facts rules have been fired on.
+     *
+     * @return the facts rules have been fired on
+     */
+    public Facts getFacts() {
+        return facts;
+    }
+
+    /**
+     * Return the indexes, in {@link CompiledRules}, of rules that have been performed successfully.
+     *
+     * @return the indexes of rules that have been performed successfully
+     */
+    public BitSet getAppliedRules() {
+        return (BitSet) appliedRules.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "FireResult {facts = " + facts + ", appliedRules = " + appliedRules + "}";
+    }
+}
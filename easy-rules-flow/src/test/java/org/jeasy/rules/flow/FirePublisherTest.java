@@ -0,0 +1,249 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.flow;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.jeasy.rules.core.BasicRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jeasy.rules.core.RulesEngineBuilder.aNewRulesEngine;
+
+/**
+ * Test class for {@link FirePublisher}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class FirePublisherTest {
+
+    private ExecutorService executor;
+
+    private RulesEngine rulesEngine;
+
+    private Rules rules;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+        rulesEngine = aNewRulesEngine().withSilentMode(true).build();
+        rules = new Rules(new BasicRule("even", "even", 1) {
+            @Override
+            public boolean evaluate(Facts facts) {
+                int n = facts.getInt("n");
+                if (n < 0) {
+                    throw new IllegalStateException("negative number " + n);
+                }
+                return n % 2 == 0;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void unorderedPublisherShouldPublishTheResultOfEachFacts() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+        FirePublisher.unordered(rulesEngine, rules, new NumbersPublisher(0, 100), 8, executor).subscribe(subscriber);
+
+        assertThat(subscriber.awaitTermination()).isTrue();
+        assertThat(subscriber.error).isNull();
+        assertThat(subscriber.results).hasSize(100);
+        for (FireResult result : subscriber.results) {
+            assertThat(result.getAppliedRules().get(0)).isEqualTo(result.getFacts().getInt("n") % 2 == 0);
+        }
+    }
+
+    @Test
+    public void factsShouldOnlyBeRequestedWithinDemandAndMaxInFlight() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(2);
+        NumbersPublisher source = new NumbersPublisher(0, 100);
+
+        FirePublisher.unordered(rulesEngine, rules, source, 8, executor).subscribe(subscriber);
+
+        subscriber.awaitResults(2);
+        Thread.sleep(50);
+        assertThat(source.requested.get()).isEqualTo(2);
+        assertThat(subscriber.results).hasSize(2);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.awaitTermination()).isTrue();
+        assertThat(subscriber.results).hasSize(100);
+        assertThat(source.maxOutstanding).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    public void orderedPublisherShouldPublishResultsOfTheSameKeyInOrder() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+
+        FirePublisher.orderedByKey(rulesEngine, rules, new NumbersPublisher(0, 200), 16,
+                facts -> facts.getInt("n") % 3, executor).subscribe(subscriber);
+
+        assertThat(subscriber.awaitTermination()).isTrue();
+        assertThat(subscriber.results).hasSize(200);
+        Map<Integer, Integer> lastByKey = new ConcurrentHashMap<>();
+        for (FireResult result : subscriber.results) {
+            int n = result.getFacts().getInt("n");
+            Integer last = lastByKey.put(n % 3, n);
+            if (last != null) {
+                assertThat(n).isGreaterThan(last);
+            }
+        }
+    }
+
+    @Test
+    public void failingFireShouldBeSignalledToTheSubscriber() throws Exception {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        NumbersPublisher source = new NumbersPublisher(-1, 100);
+
+        FirePublisher.unordered(rulesEngine, rules, source, 4, executor).subscribe(subscriber);
+
+        assertThat(subscriber.awaitTermination()).isTrue();
+        assertThat(subscriber.error).isInstanceOf(IllegalStateException.class).hasMessage("negative number -1");
+        assertThat(source.cancelled).isTrue();
+    }
+
+    /**
+     * Synchronous publisher of facts with a number fact "n".
+     */
+    private static class NumbersPublisher implements Flow.Publisher<Facts> {
+
+        private final int from;
+
+        private final int to;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private volatile long maxOutstanding;
+
+        private volatile boolean cancelled;
+
+        NumbersPublisher(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Facts> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                private int next = from;
+
+                private long emitted;
+
+                @Override
+                public synchronized void request(long n) {
+                    requested.addAndGet(n);
+                    maxOutstanding = Math.max(maxOutstanding, requested.get() - emitted);
+                    for (long i = 0; i < n && next < to && !cancelled; i++) {
+                        Facts facts = new Facts();
+                        facts.addInt("n", next++);
+                        emitted++;
+                        subscriber.onNext(facts);
+                    }
+                    if (next == to && !cancelled) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<FireResult> {
+
+        private final long initialRequest;
+
+        private final List<FireResult> results = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch terminated = new CountDownLatch(1);
+
+        private volatile Flow.Subscription subscription;
+
+        private volatile Throwable error;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(FireResult result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        boolean awaitTermination() throws InterruptedException {
+            return terminated.await(10, TimeUnit.SECONDS);
+        }
+
+        void awaitResults(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (results.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,576 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.processor;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Deterministic;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.annotation.Rule;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Annotation processor that generates a {@link org.jeasy.rules.api.Rule} implementation for each class
+ * annotated with {@link Rule}.
+ *
+ * The adapter of rule class {@code com.acme.Outer$MyRule} is named {@code com.acme.Outer_MyRule_RuleAdapter}.
+ * It calls condition and action methods directly with their facts resolved, and is picked up by
+ * {@link org.jeasy.rules.core.RuleProxy#asRule(Object)} instead of creating a dynamic proxy.
+ *
+ * Rule definitions are validated at build time with the same constraints as the ones applied at runtime
+ * on proxied rules. Private, local, anonymous and abstract classes are validated but not adapted.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@SupportedAnnotationTypes("org.jeasy.rules.annotation.Rule")
+public class RuleAdapterProcessor extends AbstractProcessor {
+
+    /**
+     * Suffix of generated adapter class names.
+     */
+    public static final String ADAPTER_SUFFIX = "_RuleAdapter";
+
+    private static final String RULE = "org.jeasy.rules.api.Rule";
+    private static final String FACTS = "org.jeasy.rules.api.Facts";
+
+    private static final Map<TypeKind, String> PRIMITIVE_GETTERS = new EnumMap<>(TypeKind.class);
+
+    static {
+        PRIMITIVE_GETTERS.put(TypeKind.INT, "getInt");
+        PRIMITIVE_GETTERS.put(TypeKind.LONG, "getLong");
+        PRIMITIVE_GETTERS.put(TypeKind.DOUBLE, "getDouble");
+        PRIMITIVE_GETTERS.put(TypeKind.BOOLEAN, "getBoolean");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Rule.class)) {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            TypeElement ruleType = (TypeElement) element;
+            RuleDefinition definition = new RuleDefinition(ruleType);
+            if (definition.isValid() && isAdaptable(ruleType)) {
+                writeAdapter(definition);
+            }
+        }
+        return false;
+    }
+
+    private boolean isAdaptable(final TypeElement ruleType) {
+        Element element = ruleType;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            TypeElement type = (TypeElement) element;
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS
+                    || type.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            element = type.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void writeAdapter(final RuleDefinition definition) {
+        TypeElement ruleType = definition.ruleType;
+        String packageName = processingEnv.getElementUtils().getPackageOf(ruleType).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(ruleType).toString();
+        String adapterName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                .replace('$', '_') + ADAPTER_SUFFIX;
+        String ruleTypeName = processingEnv.getTypeUtils().erasure(ruleType.asType()).toString();
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName.isEmpty() ? adapterName : packageName + "." + adapterName, ruleType)
+                .openWriter();
+             PrintWriter out = new PrintWriter(writer)) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Rule adapter generated by {@code " + getClass().getName() + "} for {@link " + ruleTypeName + "}.");
+            out.println(" */");
+            out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            out.println("public final class " + adapterName + " implements " + RULE + " {");
+            out.println();
+            out.println("    private static final java.util.Set<java.lang.String> FACT_NAMES = java.util.Collections.unmodifiableSet(");
+            out.println("            new java.util.LinkedHashSet<java.lang.String>(java.util.Arrays.asList(" + definition.getFactNames() + ")));");
+            out.println();
+            out.println("    private static final java.util.Set<java.lang.String> CONDITION_FACT_NAMES = java.util.Collections.unmodifiableSet(");
+            out.println("            new java.util.LinkedHashSet<java.lang.String>(java.util.Arrays.asList(" + definition.getConditionFactNames() + ")));");
+            out.println();
+            out.println("    private final " + ruleTypeName + " target;");
+            out.println();
+            out.println("    public " + adapterName + "(final " + ruleTypeName + " target) {");
+            out.println("        this.target = target;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.lang.String getName() {");
+            out.println("        return " + literal(definition.getName()) + ";");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.lang.String getDescription() {");
+            out.println("        return " + literal(definition.getDescription()) + ";");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public int getPriority() {");
+            if (definition.priorityMethod != null) {
+                writeCall(out, "return ", definition.priorityMethod, "", false);
+            } else {
+                out.println("        return " + RULE + ".DEFAULT_PRIORITY;");
+            }
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public boolean evaluate(final " + FACTS + " facts) {");
+            writeCall(out, "return ", definition.conditionMethod, arguments(definition.conditionMethod), false);
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public void execute(final " + FACTS + " facts) throws java.lang.Exception {");
+            for (ExecutableElement actionMethod : definition.actionMethods) {
+                writeCall(out, "", actionMethod, arguments(actionMethod), true);
+            }
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.Set<java.lang.String> getFactNames() {");
+            out.println("        return FACT_NAMES;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.Set<java.lang.String> getConditionFactNames() {");
+            out.println("        return CONDITION_FACT_NAMES;");
+            out.println("    }");
+            out.println();
+            if (definition.isConditionReadingFacts()) {
+                out.println("    @Override");
+                out.println("    public boolean readsAnyFact() {");
+                out.println("        return true;");
+                out.println("    }");
+                out.println();
+            }
+            if (definition.isDeterministic()) {
+                out.println("    @Override");
+                out.println("    public boolean isDeterministic() {");
+                out.println("        return true;");
+                out.println("    }");
+                out.println();
+            }
+            out.println("    @Override");
+            out.println("    public int compareTo(final " + RULE + " rule) {");
+            if (definition.compareToMethod != null) {
+                String parameterType = erasure(definition.compareToMethod.getParameters().get(0).asType());
+                writeCall(out, "return ", definition.compareToMethod, "(" + parameterType + ") rule", false);
+            } else {
+                out.println("        if (getPriority() < rule.getPriority()) {");
+                out.println("            return -1;");
+                out.println("        } else if (getPriority() > rule.getPriority()) {");
+                out.println("            return 1;");
+                out.println("        } else {");
+                out.println("            return getName().compareTo(rule.getName());");
+                out.println("        }");
+            }
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public boolean equals(final java.lang.Object o) {");
+            out.println("        return target.equals(o);");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public int hashCode() {");
+            out.println("        return target.hashCode();");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.lang.String toString() {");
+            out.println("        return target.toString();");
+            out.println("    }");
+            out.println();
+            out.println("    private static java.lang.Object fact(final " + FACTS + " facts, final java.lang.String name) {");
+            out.println("        java.lang.Object fact = facts.get(name);");
+            out.println("        if (fact == null) {");
+            out.println("            throw new java.lang.RuntimeException(java.lang.String.format(\"No fact named %s found in known facts\", name));");
+            out.println("        }");
+            out.println("        return fact;");
+            out.println("    }");
+            out.println();
+            out.println("}");
+        } catch (IOException e) {
+            error(ruleType, "Unable to write rule adapter %s: %s", adapterName, e.getMessage());
+        }
+    }
+
+    /*
+     * Methods throwing checked exceptions from a method of the Rule interface which does not declare them
+     * are wrapped the same way as a dynamic proxy would do.
+     */
+    private void writeCall(final PrintWriter out, final String prefix, final ExecutableElement method,
+                           final String arguments, final boolean checkedExceptionsAllowed) {
+        String call = prefix + "target." + method.getSimpleName() + "(" + arguments + ");";
+        if (checkedExceptionsAllowed || !throwsCheckedExceptions(method)) {
+            out.println("        " + call);
+            return;
+        }
+        out.println("        try {");
+        out.println("            " + call);
+        out.println("        } catch (java.lang.RuntimeException | java.lang.Error e) {");
+        out.println("            throw e;");
+        out.println("        } catch (java.lang.Throwable e) {");
+        out.println("            throw new java.lang.reflect.UndeclaredThrowableException(e);");
+        out.println("        }");
+    }
+
+    private boolean throwsCheckedExceptions(final ExecutableElement method) {
+        TypeMirror runtimeException = type("java.lang.RuntimeException");
+        TypeMirror error = type("java.lang.Error");
+        for (TypeMirror thrownType : method.getThrownTypes()) {
+            if (!processingEnv.getTypeUtils().isSubtype(thrownType, runtimeException)
+                    && !processingEnv.getTypeUtils().isSubtype(thrownType, error)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String arguments(final ExecutableElement method) {
+        StringBuilder arguments = new StringBuilder();
+        Iterator<? extends VariableElement> iterator = method.getParameters().iterator();
+        while (iterator.hasNext()) {
+            VariableElement parameter = iterator.next();
+            Fact fact = parameter.getAnnotation(Fact.class);
+            if (fact == null) {
+                arguments.append("facts");
+            } else if (PRIMITIVE_GETTERS.containsKey(parameter.asType().getKind())) {
+                // primitive facts are read without boxing
+                arguments.append("facts.").append(PRIMITIVE_GETTERS.get(parameter.asType().getKind()))
+                        .append("(").append(literal(fact.value())).append(")");
+            } else {
+                arguments.append("(").append(erasure(parameter.asType())).append(") ")
+                        .append("fact(facts, ").append(literal(fact.value())).append(")");
+            }
+            if (iterator.hasNext()) {
+                arguments.append(", ");
+            }
+        }
+        return arguments.toString();
+    }
+
+    private String erasure(final TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String literal(final String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private TypeMirror type(final String name) {
+        return processingEnv.getElementUtils().getTypeElement(name).asType();
+    }
+
+    /*
+     * Erased parameter types named like Class#getTypeName(), separated by commas.
+     */
+    private String parameterTypes(final ExecutableElement method) {
+        StringBuilder parameterTypes = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameterTypes.length() > 0) {
+                parameterTypes.append(',');
+            }
+            parameterTypes.append(typeName(processingEnv.getTypeUtils().erasure(parameter.asType())));
+        }
+        return parameterTypes.toString();
+    }
+
+    private String typeName(final TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+        }
+        return type.toString();
+    }
+
+    private void error(final Element element, final String message, final Object... arguments) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, format(message, arguments), element);
+    }
+
+    /**
+     * Annotated methods of a rule class, validated the same way as by {@code RuleDefinitionValidator}.
+     */
+    private class RuleDefinition {
+
+        private final TypeElement ruleType;
+        private final String ruleName;
+        private ExecutableElement conditionMethod;
+        private final List<ExecutableElement> actionMethods = new ArrayList<>();
+        private ExecutableElement priorityMethod;
+        private ExecutableElement compareToMethod;
+        private boolean valid = true;
+
+        RuleDefinition(final TypeElement ruleType) {
+            this.ruleType = ruleType;
+            this.ruleName = processingEnv.getElementUtils().getBinaryName(ruleType).toString();
+            List<ExecutableElement> conditionMethods = new ArrayList<>();
+            List<ExecutableElement> priorityMethods = new ArrayList<>();
+            for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(ruleType))) {
+                if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+                    continue;
+                }
+                if (method.getAnnotation(Condition.class) != null) {
+                    conditionMethods.add(method);
+                }
+                if (method.getAnnotation(Action.class) != null) {
+                    actionMethods.add(method);
+                }
+                if (method.getAnnotation(Priority.class) != null) {
+                    priorityMethods.add(method);
+                }
+                if (compareToMethod == null && method.getSimpleName().contentEquals("compareTo")) {
+                    compareToMethod = method;
+                }
+            }
+            Collections.sort(actionMethods, new Comparator<ExecutableElement>() {
+                @Override
+                public int compare(ExecutableElement action1, ExecutableElement action2) {
+                    // same order as ActionMethodOrderBean: by order, then by name, then by parameter types
+                    int comparison = Integer.compare(action1.getAnnotation(Action.class).order(), action2.getAnnotation(Action.class).order());
+                    if (comparison == 0) {
+                        comparison = action1.getSimpleName().toString().compareTo(action2.getSimpleName().toString());
+                    }
+                    if (comparison == 0) {
+                        comparison = parameterTypes(action1).compareTo(parameterTypes(action2));
+                    }
+                    return comparison;
+                }
+            });
+            checkConditionMethod(conditionMethods);
+            checkActionMethods();
+            checkPriorityMethod(priorityMethods);
+            checkCompareToMethod();
+        }
+
+        private void checkConditionMethod(final List<ExecutableElement> conditionMethods) {
+            if (conditionMethods.isEmpty()) {
+                invalid(ruleType, "Rule '%s' must have a public method annotated with '%s'", ruleName, Condition.class.getName());
+                return;
+            }
+            if (conditionMethods.size() > 1) {
+                invalid(ruleType, "Rule '%s' must have exactly one method annotated with '%s'", ruleName, Condition.class.getName());
+                return;
+            }
+            conditionMethod = conditionMethods.get(0);
+            if (conditionMethod.getReturnType().getKind() != TypeKind.BOOLEAN || !validParameters(conditionMethod)) {
+                invalid(conditionMethod, "Condition method '%s' defined in rule '%s' must be public, may have parameters annotated with @Fact (and/or a parameter of type Facts) and return boolean type.", conditionMethod, ruleName);
+            }
+            if (isDeterministic() && !hasOnlyFactParameters(conditionMethod)) {
+                invalid(conditionMethod, "Deterministic condition method '%s' defined in rule '%s' must only have parameters annotated with @Fact.", conditionMethod, ruleName);
+            }
+        }
+
+        private void checkActionMethods() {
+            if (actionMethods.isEmpty()) {
+                invalid(ruleType, "Rule '%s' must have at least one public method annotated with '%s'", ruleName, Action.class.getName());
+            }
+            for (ExecutableElement actionMethod : actionMethods) {
+                if (!validParameters(actionMethod)) {
+                    invalid(actionMethod, "Action method '%s' defined in rule '%s' must be public and may have parameters annotated with @Fact (and/or a parameter of type Facts).", actionMethod, ruleName);
+                }
+            }
+        }
+
+        private void checkPriorityMethod(final List<ExecutableElement> priorityMethods) {
+            if (priorityMethods.isEmpty()) {
+                return;
+            }
+            if (priorityMethods.size() > 1) {
+                invalid(ruleType, "Rule '%s' must have exactly one method annotated with '%s'", ruleName, Priority.class.getName());
+                return;
+            }
+            priorityMethod = priorityMethods.get(0);
+            if (priorityMethod.getReturnType().getKind() != TypeKind.INT || !priorityMethod.getParameters().isEmpty()) {
+                invalid(priorityMethod, "Priority method '%s' defined in rule '%s' must be public, have no parameters and return integer type.", priorityMethod, ruleName);
+            }
+        }
+
+        /*
+         * A compareTo method that can not be called with a rule is left to the dynamic proxy.
+         */
+        private void checkCompareToMethod() {
+            if (compareToMethod != null && (compareToMethod.getParameters().size() != 1
+                    || compareToMethod.getReturnType().getKind() != TypeKind.INT)) {
+                valid = false;
+            }
+        }
+
+        private boolean validParameters(final ExecutableElement method) {
+            List<VariableElement> notAnnotatedParameters = new ArrayList<>();
+            for (VariableElement parameter : method.getParameters()) {
+                if (parameter.getAnnotation(Fact.class) == null) {
+                    notAnnotatedParameters.add(parameter);
+                }
+            }
+            if (notAnnotatedParameters.size() > 1) {
+                return false;
+            } else if (notAnnotatedParameters.size() == 1) {
+                return processingEnv.getTypeUtils().isAssignable(type(FACTS), notAnnotatedParameters.get(0).asType());
+            }
+            return true;
+        }
+
+        private boolean hasOnlyFactParameters(final ExecutableElement method) {
+            for (VariableElement parameter : method.getParameters()) {
+                if (parameter.getAnnotation(Fact.class) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void invalid(final Element element, final String message, final Object... arguments) {
+            valid = false;
+            error(element, message, arguments);
+        }
+
+        boolean isValid() {
+            return valid;
+        }
+
+        /*
+         * Tell whether the condition method takes the Facts parameter, through which it may read any fact.
+         */
+        boolean isConditionReadingFacts() {
+            for (VariableElement parameter : conditionMethod.getParameters()) {
+                if (parameter.getAnnotation(Fact.class) == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isDeterministic() {
+            return conditionMethod.getAnnotation(Deterministic.class) != null;
+        }
+
+        String getName() {
+            Rule rule = ruleType.getAnnotation(Rule.class);
+            return rule.name().equals(org.jeasy.rules.api.Rule.DEFAULT_NAME) ? ruleType.getSimpleName().toString() : rule.name();
+        }
+
+        /*
+         * Comma separated literals of fact names declared by the condition and action methods.
+         */
+        String getFactNames() {
+            List<ExecutableElement> methods = new ArrayList<>();
+            methods.add(conditionMethod);
+            methods.addAll(actionMethods);
+            return factNames(methods);
+        }
+
+        /*
+         * Comma separated literals of fact names declared by the condition method.
+         */
+        String getConditionFactNames() {
+            return factNames(Collections.singletonList(conditionMethod));
+        }
+
+        private String factNames(final List<ExecutableElement> methods) {
+            Set<String> factNames = new LinkedHashSet<>();
+            for (ExecutableElement method : methods) {
+                for (VariableElement parameter : method.getParameters()) {
+                    Fact fact = parameter.getAnnotation(Fact.class);
+                    if (fact != null) {
+                        factNames.add(literal(fact.value()));
+                    }
+                }
+            }
+            StringBuilder names = new StringBuilder();
+            Iterator<String> iterator = factNames.iterator();
+            while (iterator.hasNext()) {
+                names.append(iterator.next());
+                if (iterator.hasNext()) {
+                    names.append(", ");
+                }
+            }
+            return names.toString();
+        }
+
+        String getDescription() {
+            Rule rule = ruleType.getAnnotation(Rule.class);
+            if (!rule.description().equals(org.jeasy.rules.api.Rule.DEFAULT_DESCRIPTION)) {
+                return rule.description();
+            }
+            // Default description = "when " + conditionMethodName + " then " + comma separated actionMethodsNames
+            StringBuilder description = new StringBuilder();
+            description.append("when ").append(conditionMethod.getSimpleName()).append(" then ");
+            Iterator<ExecutableElement> iterator = actionMethods.iterator();
+            while (iterator.hasNext()) {
+                description.append(iterator.next().getSimpleName());
+                if (iterator.hasNext()) {
+                    description.append(",");
+                }
+            }
+            return description.toString();
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2017, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.processor;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.core.RuleProxy;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Test class for {@link RuleAdapterProcessor}. Rules of this module's test sources are processed at build time.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RuleAdapterProcessorTest {
+
+    @org.junit.Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void generatedAdapterShouldBeUsedInsteadOfProxy() throws Exception {
+        WeatherRule weatherRule = new WeatherRule();
+        Facts facts = new Facts();
+        facts.add("rain", true);
+
+        Rule rule = RuleProxy.asRule(weatherRule);
+
+        assertThat(rule.getClass().getName()).isEqualTo(WeatherRule.class.getName() + RuleAdapterProcessor.ADAPTER_SUFFIX);
+        assertThat(rule.getName()).isEqualTo("weather rule");
+        assertThat(rule.getDescription()).isEqualTo("if it rains then take an umbrella");
+        assertThat(rule.getPriority()).isEqualTo(1);
+        assertThat(rule.getFactNames()).containsExactly("rain");
+        assertThat(rule.getConditionFactNames()).containsExactly("rain");
+        assertThat(rule.readsAnyFact()).isFalse();
+        assertThat(rule.isDeterministic()).isTrue();
+        assertThat(rule.evaluate(facts)).isTrue();
+        rule.execute(facts);
+        assertThat(weatherRule.isExecuted()).isTrue();
+    }
+
+    @Test
+    public void primitiveFactsShouldBeInjectedInPrimitiveParameters() throws Exception {
+        Facts facts = new Facts();
+        facts.addBoolean("rain", true);
+
+        Rule rule = RuleProxy.asRule(new WeatherRule());
+
+        assertThat(rule.evaluate(facts)).isTrue();
+        facts.addBoolean("rain", false);
+        assertThat(rule.evaluate(facts)).isFalse();
+    }
+
+    @Test
+    public void actionsShouldBeExecutedInTheirDefinedOrder() throws Exception {
+        OrderedRule orderedRule = new OrderedRule();
+
+        Rule rule = RuleProxy.asRule(orderedRule);
+        rule.execute(new Facts());
+
+        assertThat(rule.getClass().getSimpleName()).isEqualTo("RuleAdapterProcessorTest_OrderedRule_RuleAdapter");
+        assertThat(rule.getName()).isEqualTo("OrderedRule");
+        assertThat(rule.getDescription()).isEqualTo("when when then then0,then1,then2");
+        assertThat(rule.getPriority()).isEqualTo(Rule.DEFAULT_PRIORITY);
+        assertThat(rule.readsAnyFact()).isTrue();
+        assertThat(rule.isDeterministic()).isFalse();
+        assertThat(orderedRule.sequence).isEqualTo("012");
+    }
+
+    @Test
+    public void actionsWithTheSameOrderShouldBeExecutedByNameThenParameterTypes() throws Exception {
+        SameOrderRule sameOrderRule = new SameOrderRule();
+
+        Facts facts = new Facts();
+        facts.add("numbers", new int[0]);
+
+        Rule rule = RuleProxy.asRule(sameOrderRule);
+        rule.execute(facts);
+
+        assertThat(rule.getClass().getSimpleName()).isEqualTo("RuleAdapterProcessorTest_SameOrderRule_RuleAdapter");
+        assertThat(sameOrderRule.sequence).containsExactly("first", "a()", "a(int[])", "a(Facts)", "b");
+    }
+
+    @Test
+    public void whenAFactIsMissing_thenAnExceptionShouldBeThrown() {
+        Rule rule = RuleProxy.asRule(new WeatherRule());
+
+        try {
+            rule.evaluate(new Facts());
+            fail("A missing fact should not be silently ignored");
+        } catch (RuntimeException e) {
+            assertThat(e).hasMessage("No fact named rain found in known facts");
+        }
+    }
+
+    @Test
+    public void invalidRuleDefinitionShouldBeReportedAtBuildTime() throws Exception {
+        String source = "package test;\n"
+                + "@org.jeasy.rules.annotation.Rule\n"
+                + "public class InvalidRule {\n"
+                + "    @org.jeasy.rules.annotation.Condition\n"
+                + "    public int when() { return 0; }\n"
+                + "    @org.jeasy.rules.annotation.Action\n"
+                + "    public void then() { }\n"
+                + "}\n";
+
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("test.InvalidRule", source);
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getMessage(null)).startsWith("Condition method 'when()' defined in rule 'test.InvalidRule' must be public");
+    }
+
+    @Test
+    public void ruleWithoutActionShouldBeReportedAtBuildTime() throws Exception {
+        String source = "package test;\n"
+                + "@org.jeasy.rules.annotation.Rule\n"
+                + "public class RuleWithoutAction {\n"
+                + "    @org.jeasy.rules.annotation.Condition\n"
+                + "    public boolean when() { return true; }\n"
+                + "}\n";
+
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("test.RuleWithoutAction", source);
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getMessage(null)).isEqualTo("Rule 'test.RuleWithoutAction' must have at least one public method annotated with 'org.jeasy.rules.annotation.Action'");
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile(final String className, final String source) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-proc:only", "-s", temporaryFolder.newFolder().getPath(),
+                "-classpath", System.getProperty("java.class.path"));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new RuleAdapterProcessor()));
+        task.call();
+        List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic);
+            }
+        }
+        return errors;
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class OrderedRule {
+
+        private String sequence = "";
+
+        @Condition
+        public boolean when(@Fact("unused") Object unused, Facts facts) {
+            return true;
+        }
+
+        @Action(order = 2)
+        public void then2() {
+            sequence += "2";
+        }
+
+        @Action
+        public void then0() throws Exception {
+            sequence += "0";
+        }
+
+        @Action(order = 1)
+        public void then1(Facts facts) {
+            sequence += "1";
+        }
+    }
+
+    @org.jeasy.rules.annotation.Rule
+    public static class SameOrderRule {
+
+        private final List<String> sequence = new ArrayList<>();
+
+        @Condition
+        public boolean when() {
+            return true;
+        }
+
+        @Action
+        public void b() {
+            sequence.add("b");
+        }
+
+        @Action
+        public void a(@Fact("numbers") int[] numbers) {
+            sequence.add("a(int[])");
+        }
+
+        @Action
+        public void a(Facts facts) {
+            sequence.add("a(Facts)");
+        }
+
+        @Action
+        public void a() {
+            sequence.add("a()");
+        }
+
+        @Action(order = -1)
+        public void first() {
+            sequence.add("first");
+        }
+    }
+}